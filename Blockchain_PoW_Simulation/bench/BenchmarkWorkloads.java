@@ -0,0 +1,323 @@
+import benchmarks.Workload;
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Opérations des bancs JMH du paquetage {@code benchmarks} : minage, traitement des messages
+ * et propagation, à mesurer avant et après une modification pour détecter les régressions.
+ * <ul>
+ *   <li>{@code mining.mineBlock} : une tentative de {@link Block#mineBlock(int)} à une difficulté
+ *       donnée (un nouveau bloc après chaque succès) ;</li>
+ *   <li>{@code hashing.attempt} : une tentative ratée, par le chemin historique (texte concaténé,
+ *       {@code MessageDigest} neuf et hexadécimal à chaque nonce) ou par l'en-tête de
+ *       {@link Block#HEADER_SIZE} octets, selon le nombre de transactions du bloc ;</li>
+ *   <li>{@code mining.kernel} : un paquet de {@link #KERNEL_BATCH} nonces ratés, par
+ *       {@link Block#tryNonce(int)} ({@code digest}) ou par un {@link MiningKernel}
+ *       ({@code scalar}, {@code vector} à une largeur donnée) ;</li>
+ *   <li>{@code relay.duplicateBlock} : rejet d'un bloc déjà connu par {@link NodeLogic#onMessage},
+ *       selon la longueur de la chaîne et la position du doublon (sommet ou premier bloc) ;</li>
+ *   <li>{@code relay.forkAdoption} : adoption d'une branche concurrente plus travaillée (réorganisation
+ *       d'un bloc, deux blocs à valider), selon la longueur de la chaîne ;</li>
+ *   <li>{@code network.propagation} : diffusion d'un bloc miné jusqu'à tous les nœuds (moteur
+ *       autonome, latence activée) ; l'opération renvoie le nombre de messages échangés.</li>
+ * </ul>
+ * Dans le paquetage par défaut, comme le code qu'elles mesurent (voir {@link Workload}).
+ * <pre>
+ * mvn -B package -Pjmh
+ * mvn -B exec:exec -Pjmh -Djmh.args="relay -rf json -rff relay.json"
+ * </pre>
+ */
+public class BenchmarkWorkloads {
+
+    /** Nonces par opération de {@code mining.kernel} (comme {@link ParallelMiner} et {@link Block#mineRange}). */
+    private static final int KERNEL_BATCH = 256;
+
+    /** Appelé par réflexion depuis {@link Workload#create}. */
+    public static Workload create(String name, Object[] keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) params.put((String) keyValues[i], String.valueOf(keyValues[i + 1]));
+        switch (name) {
+            case "mining.mineBlock": return mineBlock(Integer.parseInt(params.get("difficulty")));
+            case "hashing.attempt":
+                return hashAttempt(params.get("path"), Integer.parseInt(params.get("transactions")));
+            case "mining.kernel": return kernelSearch(params.get("kernel"), Integer.parseInt(params.get("lanes")));
+            case "relay.duplicateBlock": return duplicateBlock(Integer.parseInt(params.get("chainLength")), params.get("position"));
+            case "relay.forkAdoption": return forkAdoption(Integer.parseInt(params.get("chainLength")));
+            case "network.propagation":
+                return propagation(Integer.parseInt(params.get("nodes")), RelayMode.valueOf(params.get("relay")));
+            default: throw new IllegalArgumentException("Banc inconnu : " + name);
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Bancs]
+    // ========================================================================
+
+    /** Tentatives de minage ratées et réussies, à une difficulté donnée. */
+    private static Workload mineBlock(int difficulty) {
+        Block.difficulty = difficulty;
+        Hash256 parent = BlockTree.GENESIS_HASH;
+        return new Workload() {
+            Block block = new Block("Transactions du bloc 1", parent, 0);
+            int nonce;
+
+            @Override
+            public long run() {
+                Hash256 found = block.mineBlock(nonce++);
+                if (found == null) return nonce;
+                // Bloc trouvé : le mineur repart d'un nouveau bloc
+                block = new Block("Transactions du bloc 1", parent, block.timestamp + 1);
+                nonce = 0;
+                return found.hashCode();
+            }
+        };
+    }
+
+    /**
+     * Tentatives toujours ratées (difficulté inatteignable) sur le même contenu : texte des
+     * transactions pour le chemin historique, transactions et racine de Merkle pour l'en-tête.
+     * Seul l'en-tête est haché : son coût ne doit pas dépendre du nombre de transactions.
+     */
+    private static Workload hashAttempt(String path, int transactionCount) {
+        Block.difficulty = 64;
+        List<Transaction> transactions = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < transactionCount; i++) {
+            Transaction tx = new Transaction(i % 100, i, (i + 1) % 100, 10 + i, 250, 0);
+            transactions.add(tx);
+            text.append(tx).append(';');
+        }
+        switch (path) {
+            case "legacy": {
+                Block block = new Block(text.toString(), BlockTree.GENESIS_HASH, 0);
+                return () -> legacyAttempt(block) == null ? block.nonce : 0;
+            }
+            case "header": {
+                Block block = new Block("Transactions du bloc 1", BlockTree.GENESIS_HASH, 0, transactions);
+                return () -> {
+                    Hash256 found = block.mineBlock(block.nonce + 1);
+                    return found == null ? block.nonce : found.hashCode();
+                };
+            }
+            default: throw new IllegalArgumentException("Chemin de hachage inconnu : " + path);
+        }
+    }
+
+    /** Reproduction fidèle de l'ancien {@code calculateHash()} + test de difficulté par sous-chaîne. */
+    private static String legacyAttempt(Block block) {
+        block.nonce++;
+        String dataToHash = block.previousHash.toString() +
+                            Long.toString(block.timestamp) +
+                            Integer.toString(block.nonce) +
+                            block.transactions;
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] hashBytes = digest.digest(dataToHash.getBytes(StandardCharsets.UTF_8));
+        StringBuffer hexString = new StringBuffer();
+        for (int i = 0; i < hashBytes.length; i++) {
+            String hex = Integer.toHexString(0xff & hashBytes[i]);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+        String hash = hexString.toString();
+        return hash.substring(0, 3).equals("000") ? hash : null;
+    }
+
+    /**
+     * Paquets de nonces ratés (difficulté inatteignable), les nonces ne repassant qu'après 2^31 essais.
+     * La largeur du noyau vectoriel est fixée pour toute la JVM : JMH en lance une par largeur.
+     */
+    private static Workload kernelSearch(String kind, int lanes) {
+        Block.difficulty = 64;
+        if (kind.equals("digest")) {
+            Block block = new Block("Transactions du bloc 1", BlockTree.GENESIS_HASH, 0);
+            return new Workload() {
+                int next;
+
+                @Override
+                public long run() {
+                    int from = next;
+                    next = (from + KERNEL_BATCH) & (Integer.MAX_VALUE - KERNEL_BATCH + 1);
+                    for (int i = 0; i < KERNEL_BATCH; i++) {
+                        if (block.tryNonce(from + i)) return from + i;
+                    }
+                    return -1;
+                }
+            };
+        }
+
+        // Vérifié contre MessageDigest par select() ; IllegalArgumentException s'il n'est pas disponible
+        MiningKernel kernel = MiningKernel.select(kind, lanes);
+        byte[] header = new byte[Block.HEADER_SIZE];
+        new Random(1).nextBytes(header);
+        MiningKernel.Midstate midstate = MiningKernel.prepare(header);
+        return new Workload() {
+            int next;
+
+            @Override
+            public long run() {
+                int from = next;
+                next = (from + KERNEL_BATCH) & (Integer.MAX_VALUE - KERNEL_BATCH + 1);
+                return kernel.search(midstate, from, KERNEL_BATCH, 64);
+            }
+        };
+    }
+
+    /** Un voisin renvoie un bloc que le nœud possède déjà (cas le plus fréquent du relais). */
+    private static Workload duplicateBlock(int chainLength, String position) {
+        Block.difficulty = 1;
+        SimulationConfig config = new SimulationConfig();
+        config.traceLevel = TraceLevel.OFF;
+        SimulationContext context = new SimulationContext(config);
+        List<Block> chain = buildChain(context, chainLength);
+        BenchNode node = new BenchNode(context, 0);
+        BenchNode peer = new BenchNode(context, 1);
+        node.logic.tip = chain.get(chain.size() - 1);
+        Block duplicate = position.equals("tip") ? node.logic.tip : chain.get(1);
+
+        return () -> {
+            node.logic.onMessage(duplicate, peer.logic);
+            return node.logic.tip.height;
+        };
+    }
+
+    /**
+     * Réorganisation d'un bloc : le nœud est au sommet A(n) et reçoit le segment [S, S'] qui part
+     * de A(n-1). Les paires concurrentes tournent sur un lot plus grand que les caches
+     * anti-doublon ; le cache de validation est réduit à un bloc pour que chaque bloc soit haché.
+     */
+    private static Workload forkAdoption(int chainLength) {
+        Block.difficulty = 1;
+        SimulationConfig config = new SimulationConfig();
+        config.validatedCacheSize = 1;
+        config.traceLevel = TraceLevel.OFF;
+        SimulationContext context = new SimulationContext(config);
+        List<Block> chain = buildChain(context, chainLength);
+        Block tip = chain.get(chain.size() - 1);
+        Block forkPoint = chain.get(chain.size() - 2);
+
+        BenchNode node = new BenchNode(context, 0);
+        BenchNode peer = new BenchNode(context, 1);
+        List<BlocksMessage> branches = new ArrayList<>();
+        for (int i = 0; i < 2 * config.seenCacheSize; i++) {
+            Block first = mine(new Block("Branche " + i, forkPoint.hash, forkPoint.timestamp + 1 + i));
+            Block second = mine(new Block("Branche " + i, first.hash, first.timestamp));
+            branches.add(new BlocksMessage(List.of(first, second)));
+        }
+
+        return new Workload() {
+            int next;
+            BlocksMessage branch;
+
+            @Override
+            public void prepare() {
+                node.logic.tip = tip;
+                branch = branches.get(next++ % branches.size());
+            }
+
+            @Override
+            public long run() {
+                node.logic.onMessage(branch, peer.logic);
+                if (node.logic.tip != branch.blocks.get(1)) throw new IllegalStateException("Branche non adoptée");
+                return node.logic.tip.height;
+            }
+        };
+    }
+
+    /** Un bloc miné par un nœud tiré à tour de rôle, jusqu'à ce que tous les nœuds l'aient adopté. */
+    private static Workload propagation(int nodeCount, RelayMode relay) {
+        Block.difficulty = 4;
+        SimulationConfig config = new SimulationConfig();
+        config.miningMode = MiningMode.STATISTICAL;
+        config.averageHashRate = 1e-9; // Aucune découverte spontanée : seuls les blocs injectés circulent
+        config.relayMode = relay;
+        config.latencyEnabled = true;
+        config.topologyDegree = 8;
+        config.traceLevel = TraceLevel.OFF;
+        HeadlessSimulation simulation = new HeadlessSimulation(config, 42);
+        try {
+            simulation.build(nodeCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Workload() {
+            long blocks;
+
+            @Override
+            public long run() {
+                long messagesBefore = simulation.context.networkStats.totalMessages();
+                HeadlessNode miner = simulation.nodes.get((int) (blocks++ % nodeCount));
+                miner.logic.solve();
+                // Bien au-delà du diamètre du réseau multiplié par la latence maximale
+                simulation.runUntil(simulation.scheduler.now() + 10_000);
+                if (simulation.consensusRatio() < 1) throw new IllegalStateException("Bloc non propagé à tous les nœuds");
+                return simulation.context.networkStats.totalMessages() - messagesBefore;
+            }
+        };
+    }
+
+
+    // ========================================================================
+    // [SECTION: Préparation]
+    // ========================================================================
+
+    /** @return Une chaîne linéaire de {@code length} blocs minés, Genesis compris, insérée dans l'arbre. */
+    private static List<Block> buildChain(SimulationContext context, int length) {
+        List<Block> chain = new ArrayList<>(length);
+        Block tip = context.blockTree.genesis();
+        chain.add(tip);
+        for (int height = 1; height < length; height++) {
+            tip = context.blockTree.add(mine(new Block("Transactions du bloc " + height, tip.hash, height * 1000L)));
+            chain.add(tip);
+        }
+        return chain;
+    }
+
+    private static Block mine(Block block) {
+        int nonce = 0;
+        while (block.mineBlock(nonce) == null) nonce++;
+        return block;
+    }
+
+    /** Nœud sans moteur : les messages envoyés sont ignorés, les traces aussi. */
+    private static final class BenchNode implements NodeHost {
+        final NodeLogic logic;
+        final int index;
+        final List<NodeLogic> peers = new ArrayList<>();
+
+        BenchNode(SimulationContext context, int index) {
+            this.index = index;
+            this.logic = new NodeLogic(this, context);
+        }
+
+        @Override public int index() { return index; }
+        @Override public List<NodeLogic> peers() { return peers; }
+        @Override public void sendMessage(NetworkMessage message, NodeLogic to, double delaySeconds) { }
+        @Override public double randomUniform(double min, double max) { return min; }
+        @Override public double randomExponential(double rate) { return 1 / rate; }
+        @Override public void scheduleSolve(double delaySeconds) { }
+        @Override public void scheduleTransaction(double delaySeconds) { }
+        @Override public double now() { return 0; }
+        @Override public long currentTimeMillis() { return 0; }
+        @Override public void trace(String line) { }
+        @Override public void flash(Color color) { }
+        @Override public void updateVisuals() { }
+        @Override public void onBlockMined() { }
+        @Override public void animateMessage(NodeLogic to) { }
+    }
+}
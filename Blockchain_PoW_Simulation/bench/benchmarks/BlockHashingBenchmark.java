@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tentatives ratées par seconde : chemin historique ({@code legacy} : texte concaténé,
+ * {@code MessageDigest} neuf et hexadécimal par nonce) contre en-tête de 80 octets
+ * ({@code header}), pour un petit bloc et pour 2000 transactions. Les octets alloués par
+ * tentative s'obtiennent avec {@code -prof gc} ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BlockHashingBenchmark {
+
+    @Param({"legacy", "header"})
+    public String path;
+
+    @Param({"1", "2000"})
+    public int transactions;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("hashing.attempt", "path", path, "transactions", transactions);
+    }
+
+    @Benchmark
+    public long attempt() {
+        return workload.run();
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rejet d'un bloc déjà connu ({@code NodeLogic.onMessage}), cas le plus fréquent du relais,
+ * selon la longueur de la chaîne et la position du doublon (sommet ou premier bloc).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DuplicateBlockBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int chainLength;
+
+    @Param({"tip", "first"})
+    public String position;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("relay.duplicateBlock", "chainLength", chainLength, "position", position);
+    }
+
+    @Benchmark
+    public long duplicateBlock() {
+        return workload.run();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adoption d'une branche concurrente plus travaillée : réorganisation d'un bloc et validation
+ * de deux blocs, selon la longueur de la chaîne. Le sommet est remis en place avant chaque
+ * invocation (hors mesure) ; l'opération dure des dizaines de microsecondes, bien au-delà
+ * du coût de {@code Level.Invocation}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ForkAdoptionBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int chainLength;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("relay.forkAdoption", "chainLength", chainLength);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        workload.prepare();
+    }
+
+    @Benchmark
+    public long forkAdoption() {
+        return workload.run();
+    }
+}
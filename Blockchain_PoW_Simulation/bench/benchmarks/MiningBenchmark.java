@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tentatives de minage par seconde ({@code Block.mineBlock}), à chaque difficulté :
+ * tentatives ratées et réussies, un nouveau bloc après chaque succès.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MiningBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int difficulty;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("mining.mineBlock", "difficulty", difficulty);
+    }
+
+    @Benchmark
+    public long mineBlock() {
+        return workload.run();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tentatives ratées par seconde sur un cœur : {@code Block.tryNonce} ({@code digest}),
+ * noyau scalaire et noyau vectoriel. Le noyau vectoriel n'existe qu'avec le profil
+ * {@code simd} ; sans lui, ce cas échoue et les autres sont mesurés. Une largeur par
+ * JVM ({@code lanes}, 0 = préférée du processeur) :
+ * <pre>
+ * mvn -B package -Pjmh,simd
+ * mvn -B exec:exec -Pjmh,simd -Djmh.args="MiningKernel -p lanes=4,8,16"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class MiningKernelBenchmark {
+
+    /** Nonces par opération ({@code BenchmarkWorkloads.KERNEL_BATCH}). */
+    private static final int BATCH = 256;
+
+    @Param({"digest", "scalar", "vector"})
+    public String kernel;
+
+    @Param({"0"})
+    public int lanes;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("mining.kernel", "kernel", kernel, "lanes", lanes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long search() {
+        return workload.run();
+    }
+}
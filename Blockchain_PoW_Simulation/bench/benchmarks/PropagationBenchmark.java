@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Diffusion d'un bloc miné jusqu'à tous les nœuds d'un réseau (moteur autonome, latence activée).
+ * Les compteurs {@code messages} et {@code blocks} de chaque itération donnent le nombre
+ * de messages par bloc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PropagationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int nodes;
+
+    @Param({"PUSH", "INVENTORY"})
+    public String relay;
+
+    private Workload workload;
+
+    /** Trafic d'une itération (compteurs secondaires de JMH). */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Traffic {
+        public long messages;
+        public long blocks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+            blocks = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = Workload.create("network.propagation", "nodes", nodes, "relay", relay);
+    }
+
+    @Benchmark
+    public void propagation(Traffic traffic) {
+        traffic.messages += workload.run();
+        traffic.blocks++;
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Opération mesurée par un banc JMH, préparée par le code de la simulation.
+ * <p>
+ * JMH refuse les bancs du paquetage par défaut, et un paquetage nommé ne peut pas référencer
+ * les classes du paquetage par défaut ({@code Block}, {@code NodeLogic}...) : les bancs de ce
+ * paquetage obtiennent donc leur opération de {@code BenchmarkWorkloads}, chargé une fois par
+ * réflexion pendant la préparation (hors mesure). L'appel mesuré est un simple appel d'interface.
+ */
+public interface Workload {
+
+    /** Préparation d'une invocation (non chronométrée, {@code Level.Invocation}). */
+    default void prepare() {
+    }
+
+    /**
+     * Exécute une opération.
+     * @return Une valeur dépendant du résultat (consommée par le Blackhole, ou comptée).
+     */
+    long run();
+
+    /**
+     * Crée l'opération d'un banc.
+     * @param name Nom du banc (ex : {@code "relay.duplicateBlock"}).
+     * @param params Paramètres du banc, par paires nom / valeur.
+     */
+    static Workload create(String name, Object... params) {
+        try {
+            return (Workload) Class.forName("BenchmarkWorkloads")
+                    .getMethod("create", String.class, Object[].class)
+                    .invoke(null, name, params);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Préparation du banc " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkWorkloads introuvable (profil jmh non compilé)", e);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package agents;
 
 import com.anylogic.engine.Agent;
-import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -17,9 +19,28 @@ public class Agent_Main extends Agent {
     /** Liste de tous les mineurs du réseau. */
     public ArrayList<noeud> noeuds = new ArrayList<>();
     
-    /** Liste des agents visuels (facteurs) en transit. */
+    /** Liste des agents visuels (facteurs), en transit ou en réserve. */
     public ArrayList<Messager> messagers = new ArrayList<>();
 
+    /** Réserve des messagers arrivés, réutilisés au lieu d'être créés et détruits à chaque envoi. */
+    public ArrayDeque<Messager> messagerPool = new ArrayDeque<>();
+
+    /** Nœuds dont l'affichage doit être mis à jour au prochain rafraîchissement (uiRefreshEvent). */
+    public ArrayList<Agent_Noeud> refreshQueue = new ArrayList<>();
+
+    /** Nombre d'envois candidats à l'animation (pour l'échantillonnage 1 sur N). */
+    private long animationCounter = 0;
+
+    // --- CONFIGURATION ---
+    /** Réglages du consensus partagés par tous les nœuds (mode de minage, etc.). */
+    public SimulationConfig config = new SimulationConfig();
+
+    /**
+     * État partagé de la simulation : réglages, arbre de tous les blocs acceptés
+     * (chaque nœud n'en garde que le sommet) et compteurs de trafic.
+     */
+    public SimulationContext context = new SimulationContext(config);
+
 
     // --- INTERFACE UTILISATEUR (UI) ---
     
@@ -30,6 +51,148 @@ public class Agent_Main extends Agent {
     public Button btn_attaque;
 
 
+    // ========================================================================
+    // [SECTION: Agent Actions -> On startup]
+    // Construction de la topologie P2P, une seule fois pour tout le réseau
+    // (exécuté après le "On startup" de chaque nœud).
+    // ========================================================================
+    public void onStartup() {
+        // Case cochée à l'enregistrement du modèle : onChange n'est appelé qu'à un changement
+        config.latencyEnabled = chk_simulerFork.isSelected();
+
+        // Le code "On startup" d'AnyLogic ne peut pas propager d'exception vérifiée
+        List<int[]> liens;
+        try {
+            liens = TopologyBuilder.build(config, noeuds.size(), getDefaultRandomNumberGenerator());
+        } catch (IOException e) {
+            error("Topologie " + config.topologyModel + " : impossible de lire le fichier de liens "
+                    + config.topologyFile + " (" + e + ")");
+            return;
+        } catch (IllegalArgumentException e) {
+            error("Topologie " + config.topologyModel + " invalide : " + e.getMessage());
+            return;
+        }
+        for (int[] lien : liens) {
+            noeuds.get(lien[0]).connectTo(noeuds.get(lien[1]));
+        }
+        traceln("Topologie " + config.topologyModel + " : " + noeuds.size() + " nœuds, " + liens.size() + " liens");
+    }
+
+
+    // ========================================================================
+    // [SECTION: Agent Actions -> On destroy]
+    // Bilan du trafic et des indicateurs à la fin de la simulation (à comparer entre PUSH et INVENTORY).
+    // ========================================================================
+    public void onDestroy() {
+        traceln("--- TRAFIC RÉSEAU (relais " + config.relayMode + ") ---");
+        traceln(context.networkStats.summary());
+
+        // Débit : transactions incluses dans la chaîne la plus travaillée
+        Block best = context.blockTree.genesis();
+        long emises = 0;
+        for (noeud n : noeuds) {
+            if (n.logic.tip.chainWork > best.chainWork) best = n.logic.tip;
+            emises += n.logic.transactionSequence;
+        }
+        long confirmees = context.blockTree.transactionCount(best);
+        traceln("Validation : " + context.validator.verifiedBlocks + " blocs hachés, "
+                + context.validator.cacheHits + " vérifications évitées par le cache");
+        traceln("Transactions : " + emises + " émises, " + confirmees + " confirmées ("
+                + String.format("%.2f", confirmees / Math.max(time(), 1e-9)) + " tx/s)");
+        MiningKernel kernel = MiningKernel.current();
+        traceln("Noyau de minage " + kernel + " : " + kernel.attempts.sum() + " tentatives, "
+                + String.format("%.0f", kernel.attemptsPerSecond()) + " tentatives/s par thread");
+        traceln(context.metrics.summary(best));
+
+        // Export des indicateurs, si un préfixe de fichiers est configuré
+        if (config.metricsPath != null) {
+            List<NodeLogic> logiques = new ArrayList<>();
+            for (noeud n : noeuds) logiques.add(n.logic);
+            try {
+                context.metrics.export(config.metricsPath, best, logiques, time(SECOND));
+            } catch (IOException e) {
+                traceln("Export des indicateurs impossible : " + e.getMessage());
+            }
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Animation -> Réserve de messagers]
+    // ========================================================================
+
+    /**
+     * Décide si un envoi de bloc est animé : toujours pour les nœuds sélectionnés
+     * (config.animatedNodes), sinon un envoi sur config.animationSampleRate.
+     */
+    public boolean shouldAnimate(Agent_Noeud source, Agent_Noeud cible) {
+        if (config.animatedNodes.contains(source.getIndex()) || config.animatedNodes.contains(cible.getIndex())) {
+            return true;
+        }
+        int rate = config.animationSampleRate;
+        return rate > 0 && animationCounter++ % rate == 0;
+    }
+
+    /** Sort un messager de la réserve (ou en crée un si elle est vide) et le met en service. */
+    public Messager acquireMessager(Agent_Noeud cible, Agent_Noeud source) {
+        Messager m = messagerPool.poll();
+        if (m == null) {
+            m = add_messagers(cible, source);
+        } else {
+            m.cible = cible;
+            m.source = (noeud) source;
+        }
+        m.contenu = null;
+        m.enService = true;
+        return m;
+    }
+
+    /** Rend un messager arrivé à la réserve (caché, prêt à resservir). */
+    public void releaseMessager(Agent_Messager m) {
+        m.enService = false;
+        m.contenu = null;
+        messagerPool.push((Messager) m);
+    }
+
+
+    // ========================================================================
+    // [SECTION: Events -> uiRefreshEvent -> Action]
+    // Rafraîchissement groupé de l'affichage, cyclique (période config.uiRefreshPeriod).
+    // ========================================================================
+
+    /** Inscrit un nœud au prochain rafraîchissement (une seule fois par période). */
+    public void requestRefresh(Agent_Noeud n) {
+        if (n.inRefreshQueue) return;
+        n.inRefreshQueue = true;
+        refreshQueue.add(n);
+    }
+
+    /** Applique les changements d'affichage en attente ; garde les nœuds dont un voyant reste allumé. */
+    public void uiRefreshAction() {
+        double now = time();
+        int kept = 0;
+        for (int i = 0; i < refreshQueue.size(); i++) {
+            Agent_Noeud n = refreshQueue.get(i);
+            if (n.refreshVisuals(now)) {
+                refreshQueue.set(kept++, n);
+            } else {
+                n.inRefreshQueue = false;
+            }
+        }
+        refreshQueue.subList(kept, refreshQueue.size()).clear();
+    }
+
+
+    // ========================================================================
+    // [SECTION: Contrôles -> CheckBox 'Simuler Fork' -> Action]
+    // ========================================================================
+
+    /** Active/désactive la latence réseau aléatoire pour tous les nœuds. */
+    public void onChange_ChkSimulerFork() {
+        config.latencyEnabled = chk_simulerFork.isSelected();
+    }
+
+
     // ========================================================================
     // [SECTION: Contrôles -> Button 'Diffuser Bloc Invalide' -> Action]
     // ========================================================================
@@ -51,35 +214,7 @@ public class Agent_Main extends Agent {
         int indexAttaquant = rand.nextInt(noeuds.size());
         noeud attaquant = (noeud) noeuds.get(indexAttaquant);
 
-        // 3. Feedback Visuel : L'attaquant flashe en ROUGE
-        attaquant.flash(Color.RED); 
-
-        // 4. On prépare un faux bloc (hash invalide)
-        // On se base sur le dernier bloc valide pour que la fraude soit subtile
-        Block lastBlock = attaquant.blockchain.get(attaquant.blockchain.size() - 1);
-        Block fakeBlock = new Block("FAUSSES TRANSACTIONS", lastBlock.hash);
-        
-        // LA FRAUDE : On force un hash qui ne correspond pas mathématiquement aux données + nonce
-        fakeBlock.hash = "0000aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
-
-        // 5. L'ATTAQUE (Logique uniquement)
-        traceln("--- ATTAQUE : Noeud " + indexAttaquant + " diffuse un FAUX BLOC ! ---");
-
-        // On boucle sur les voisins de l'attaquant pour diffuser la fraude
-        for (Agent a : attaquant.getConnections()) {
-            
-            noeud voisin = (noeud) a;
-
-            // LOGIQUE D'ENVOI
-            // On utilise le système d'événement dynamique pour gérer le délai d'envoi
-            if (chk_simulerFork.isSelected()) {
-                // Mode Latence (Réseau réaliste)
-                double delai = uniform(1.0, 2.0);
-                attaquant.create_SendWithDelayEvent(delai, SECOND, fakeBlock, voisin);
-            } else {
-                // Mode Instantané (simulation avec délai infime)
-                attaquant.create_SendWithDelayEvent(0.001, SECOND, fakeBlock, voisin);
-            }
-        }
+        // 3. L'attaquant diffuse un faux bloc à ses voisins (voir NodeLogic)
+        attaquant.logic.broadcastInvalidBlock();
     }
-}
\ No newline at end of file
+}
@@ -19,9 +19,15 @@ public class Agent_Messager extends Agent {
     /** Le nœud expéditeur (pour référence). */
     public noeud source;
     
-    /** La charge utile (le bloc transporté). */
+    /** La charge utile (le bloc transporté), ou null si le messager n'est qu'une animation. */
     public Block contenu;
 
+    /**
+     * Vrai tant que le messager est en vol. Les messagers arrivés retournent dans la réserve
+     * de Main au lieu d'être détruits : la propriété "Visible" de la présentation est liée à ce drapeau.
+     */
+    public boolean enService;
+
     // ========================================================================
     // [SECTION: Agent Actions -> On arrival to target location]
     // Action exécutée lorsque le messager atteint physiquement sa destination.
@@ -30,10 +36,10 @@ public class Agent_Messager extends Agent {
         // 1. Livraison du message
         // Le facteur déclenche la réception du message chez le destinataire.
         // C'est ce qui synchronise l'événement visuel (contact) avec l'événement logique.
-        send(contenu, cible);
+        if (contenu != null) send(contenu, cible);
 
-        // 2. Suppression
-        // Une fois la mission accomplie, l'agent est détruit pour libérer la mémoire.
-        main.remove_messagers(this);
+        // 2. Recyclage
+        // Une fois la mission accomplie, l'agent est caché et rendu à la réserve (pas de destruction).
+        main.releaseMessager(this);
     }
 }
\ No newline at end of file
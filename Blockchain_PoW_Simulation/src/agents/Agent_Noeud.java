@@ -2,7 +2,7 @@ package agents;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.List;
 import com.anylogic.engine.Agent;
 
 /**
@@ -11,244 +11,168 @@ import com.anylogic.engine.Agent;
  * C'est l'entité centrale de la simulation. Chaque instance de cet agent représente un nœud du réseau
  * blockchain qui maintient une copie locale du registre, participe au consensus (Proof-of-Work)
  * et relaie les blocs validés aux voisins (Gossip Protocol).
+ * <p>
+ * Le consensus lui-même est dans {@link NodeLogic} (partagé avec le moteur autonome) :
+ * cet agent ne fait que lui fournir le temps, l'aléa, les connexions et l'affichage AnyLogic.
  */
-public class Agent_Noeud extends Agent {
+public class Agent_Noeud extends Agent implements NodeHost {
+
+    // --- 1. LOGIQUE DU NŒUD ---
+    public NodeLogic logic;                 // État de consensus et réactions aux messages
 
-    // --- 1. VARIABLES D'ÉTAT & MÉMOIRE ---
-    public ArrayList<Block> blockchain = new ArrayList<>();
-    public Block blockInProgress;
-    public int currentNonce = 0;
-    
     // --- 2. VARIABLES VISUELLES & UI ---
     public ShapeRectangle voyant_rect;      // Le rectangle qui flashe (Vert/Bleu/Orange)
     public Text indexText;                  // Affiche "noeud X"
     public Text chainLengthText;            // Affiche "Blocks: X"
-    
+
     // --- 3. VARIABLES DE CONTRÔLE ---
     public boolean visuelDejaRecu = false;  // Protection anti-écho pour la visualisation
 
+    // --- 4. AFFICHAGE DIFFÉRÉ (appliqué par main.uiRefreshAction) ---
+    public boolean inRefreshQueue = false;  // Déjà inscrit au prochain rafraîchissement
+    public boolean visualsDirty = false;    // Le compteur de blocs est à réécrire
+    public Color pendingFlash;              // Couleur à allumer au prochain rafraîchissement
+    public double flashEndTime = -1;        // Date d'extinction du voyant (-1 = éteint)
+    public double visuelResetTime = -1;     // Date de fin de la protection anti-écho (-1 = aucune)
+
 
     // ========================================================================
     // [SECTION: Agent Actions -> On Startup]
-    // Initialisation de la topologie et de la blockchain au lancement.
+    // Initialisation de la blockchain au lancement (la topologie P2P est construite par Main).
     // ========================================================================
     public void onStartup() {
-        // --- TOPOLOGIE P2P ---
-        // On veut que chaque nœud ait au moins 2 connexions pour la sécurité
-        int connectionsTarget = 2; 
-        int totalNodes = main.noeuds.size();
-
-        // Tant que je n'ai pas assez d'amis...
-        while (getConnections().size() < connectionsTarget) {
-            
-            // 1. Je choisis un nœud au hasard dans la liste
-            int randomIndex = uniform_discr(0, totalNodes - 1);
-            Agent potentialNeighbor = main.noeuds.get(randomIndex);
-            
-            // 2. Je vérifie :
-            // - Que ce n'est pas moi-même
-            // - Que je ne suis pas déjà connecté à lui
-            if (potentialNeighbor != this && !isConnectedTo(potentialNeighbor)) {
-                // je me connecte à lui
-                connectTo(potentialNeighbor);
-            }
-        }
-
         // Récupère l'index de cet agent dans la population (0, 1, 2, ou 3)
-        int index = getIndex(); 
+        int index = getIndex();
 
         // Met à jour l'objet 'indexText' avec le bon numéro
         indexText.setText("noeud " + index);
 
+        // 1. Créer la logique du nœud (part du Bloc Genesis de l'arbre partagé)
+        logic = new NodeLogic(this, main.context);
 
-        // 1. Créer le Bloc Genesis 
-        Block genesisBlock = new Block("Bloc Genesis (Initial)", "0");
-        genesisBlock.hash = "0000000000000000000000000000000000000000000000000000000000000001";
+        // 2. Mettre à jour l'affichage
+        updateVisuals();
 
-        // 2. L'ajouter à notre chaîne
-        blockchain.add(genesisBlock);
-
-        // 3. Mettre à jour l'affichage
-        updateVisuals(); 
+        // 3. Démarrer (puissance de hachage, première découverte en mode STATISTICAL)
+        logic.start();
     }
 
 
     // ========================================================================
     // [SECTION: Statechart -> Transition 'Mining' -> Action]
-    // Boucle de travail principale (Minage non-bloquant).
     // ========================================================================
     public void miningLoopAction() {
-        // 1. Avons-nous un bloc sur lequel travailler ?
-        if (blockInProgress == null) {
-            // Non, alors créons-en un nouveau
-            Block lastBlock = blockchain.get(blockchain.size() - 1);
-            blockInProgress = new Block("Transactions du bloc " + (blockchain.size()), lastBlock.hash);
-            currentNonce = 0; // Réinitialiser le compteur de tentatives
-        }
-
-        // 2. Faisons UNE tentative de minage en appelant notre nouvelle fonction
-        String winningHash = blockInProgress.mineBlock(currentNonce); // On appelle mineBlock
-
-        // 3. Vérifions si on a gagné (si le résultat n'est pas 'null')
-        if (winningHash != null) {
-            
-            // --- ON A GAGNÉ ! ---
-            traceln("Noeud " + getIndex() + ": J'AI MINÉ LE BLOC " + blockchain.size() + " !");
-            
-            flash(Color.GREEN);
-            
-            // b. L'ajouter à notre chaîne
-            blockchain.add(blockInProgress);
-            
-            visuelDejaRecu = true; 
-            create_EventResetVisuel(5, SECOND);
-            
-            
-            // c. Le diffuser aux autres (logique conditionnelle)
-            if (main.chk_simulerFork.isSelected()) {
-                // CAS 1 : La case EST cochée - Envoyer avec délai random pour chaque nœud
-                for (Agent a : getConnections()) {
-                    noeud voisin = (noeud) a;
-                        
-                    // 1. Création (Cible = Voisin, Source = Moi)
-                    Messager leMessager = main.add_messagers(voisin, this);
-                    
-                    // 2. Placement & Vitesse
-                    leMessager.jumpTo(this.getX(), this.getY());
-                    leMessager.setSpeed(150); 
-                    
-                    // 3. Départ
-                    leMessager.moveTo(voisin);
-
-                    // Délai aléatoire entre 0.5 et 3 secondes
-                    double delaiAleatoire = uniform(1.0, 2.0);
-
-                    // Planifie l’envoi avec délai
-                    create_SendWithDelayEvent(
-                        delaiAleatoire,      // délai
-                        SECOND,              // unité
-                        blockInProgress,     // paramètre message
-                        a                    // paramètre destinataire
-                    );
-                }
-            } else {
-                // CAS 2 : La case N'EST PAS cochée - Envoyer à tous les nœuds sans delay
-                for (Agent a : getConnections()) {
-                    noeud voisin = (noeud) a;
-                        
-                    // 1. Création (Cible = Voisin, Source = Moi)
-                    Messager leMessager = main.add_messagers(voisin, this);
-                    
-                    // 2. Placement & Vitesse
-                    leMessager.jumpTo(this.getX(), this.getY());
-                    leMessager.setSpeed(150); 
-                    
-                    // 3. Départ
-                    leMessager.moveTo(voisin);
-                    send(blockInProgress, a); // Envoi immédiat sans délai
-                }
-            }
-            
-            // d. Mettre à jour notre affichage
-            updateVisuals();
-            
-            // e. Réinitialiser le travail (prêt pour le bloc suivant)
-            blockInProgress = null;
-            currentNonce = 0;
+        logic.miningTick();
+    }
 
-        } else {
-            // --- ON A PERDU ---
-            // On augmente juste le compteur pour la prochaine tentative
-            currentNonce++;
-        }
+    // ========================================================================
+    // [SECTION: Events -> solveEvent -> Action]
+    // ========================================================================
+    public void solveEventAction() {
+        logic.solve();
     }
 
+    // ========================================================================
+    // [SECTION: Events -> txGenerationEvent -> Action]
+    // ========================================================================
+    public void txGenerationEventAction() {
+        logic.generateTransaction();
+    }
 
     // ========================================================================
     // [SECTION: Communication -> On message received]
-    // Cerveau du consensus : Validation, Acceptation et Relais.
     // ========================================================================
     public void onMessageReceived(Object msg, Agent sender) {
-        if (msg instanceof Block) {
-            Block receivedBlock = (Block) msg;
-
-            // --- 1. PROTECTION ANTI-BOUCLE ---
-            // Si j'ai déjà ce bloc dans ma chaîne, je l'ignore.
-            // Cela empêche le message de tourner en rond dans l'anneau.
-            for (Block b : blockchain) {
-                if (b.hash.equals(receivedBlock.hash)) {
-                    return; // STOP ! Je connais déjà.
-                }
-            }
-
-            noeud expediteur = (noeud) sender;
-            Block myLastBlock = blockchain.get(blockchain.size() - 1);
-
-            // Recalcule le hash pour être sûr (validation)
-            String calculatedHash = receivedBlock.calculateHash();
-            boolean isValid = calculatedHash.equals(receivedBlock.hash) &&
-                              receivedBlock.hash.substring(0, Block.difficulty).equals(Block.difficultyTarget);
-            
-            if (!isValid) {
-                traceln("Noeud " + getIndex() + ": Bloc reçu de la part de Noeud " + expediteur.getIndex() + " est INVALIDE. REJETÉ.");
-                flash(Color.ORANGE);
-                return;
-            }
-            
-            // CAS A : Le bloc s'ajoute parfaitement
-            if (receivedBlock.previousHash.equals(myLastBlock.hash)) {
-                blockchain.add(receivedBlock);
-                traceln("Noeud " + getIndex() + ": Bloc " + (blockchain.size()-1) + " reçu de la part de Noeud " + expediteur.getIndex() + " et ACCEPTÉ.");
-                updateVisuals();
-                
-                flash(Color.BLUE);
-                
-                // Abandonner notre travail actuel
-                blockInProgress = null;
-                currentNonce = 0;
-
-                // --- 2. PROPAGATION (Le Relais) ---
-                // Je transmets aux voisins sauf à celui qui me l'a envoyé
-                for (Agent voisin : getConnections()) {
-                    if (voisin != sender) {
-                        if (main.chk_simulerFork.isSelected()) {
-                            // Mode Latence : On utilise votre Événement Dynamique
-                            double delai = uniform(0.5, 3.0);
-                            create_SendWithDelayEvent(delai, SECOND, receivedBlock, voisin);
-                        } else {
-                            // Mode Instantané
-                            send(receivedBlock, voisin);
-                        }
-                    }
-                }
-            
-            // CAS B : C'est un FORK
-            } else if (expediteur.blockchain.size() > this.blockchain.size()) {
-                traceln("Noeud " + getIndex() + ": FORK DÉTECTÉ ! Chaîne de " + expediteur.getIndex() + " adoptée.");
-                this.blockchain = new ArrayList<Block>(expediteur.blockchain);
-                updateVisuals();
-                flash(Color.YELLOW);
-                
-                // Abandonner notre travail actuel
-                blockInProgress = null;
-                currentNonce = 0;
-
-                // --- 2. PROPAGATION DU FORK ---
-                // Je transmets la nouvelle chaîne (le dernier bloc) aux voisins
-                for (Agent voisin : getConnections()) {
-                    if (voisin != sender) {
-                        if (main.chk_simulerFork.isSelected()) {
-                            // Mode Latence
-                            double delai = uniform(0.5, 3.0);
-                            create_SendWithDelayEvent(delai, SECOND, receivedBlock, voisin);
-                        } else {
-                            // Mode Instantané
-                            send(receivedBlock, voisin);
-                        }
-                    }
-                }
-            }
+        logic.onMessage(msg, ((noeud) sender).logic);
+    }
+
+
+    // ========================================================================
+    // [SECTION: NodeHost -> Moteur AnyLogic]
+    // ========================================================================
+
+    @Override
+    public int index() {
+        return getIndex();
+    }
+
+    @Override
+    public List<NodeLogic> peers() {
+        List<NodeLogic> voisins = new ArrayList<>();
+        for (Agent a : getConnections()) {
+            voisins.add(((noeud) a).logic);
         }
+        return voisins;
+    }
+
+    @Override
+    public void sendMessage(NetworkMessage message, NodeLogic to, double delaySeconds) {
+        Agent destinataire = (Agent) to.host;
+        if (delaySeconds > 0) {
+            // Mode Latence : On utilise l'Événement Dynamique
+            create_SendWithDelayEvent(delaySeconds, SECOND, message, destinataire);
+        } else {
+            // Mode Instantané
+            send(message, destinataire);
+        }
+    }
+
+    @Override
+    public double randomUniform(double min, double max) {
+        return uniform(min, max);
+    }
+
+    @Override
+    public double randomExponential(double rate) {
+        return exponential(rate);
+    }
+
+    @Override
+    public void scheduleSolve(double delaySeconds) {
+        solveEvent.restart(delaySeconds, SECOND);
+    }
+
+    @Override
+    public void scheduleTransaction(double delaySeconds) {
+        txGenerationEvent.restart(delaySeconds, SECOND);
+    }
+
+    @Override
+    public double now() {
+        return time(SECOND);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void trace(String line) {
+        traceln(line);
+    }
+
+    @Override
+    public void onBlockMined() {
+        visuelDejaRecu = true;
+        visuelResetTime = time() + 5;
+        main.requestRefresh(this);
+    }
+
+    @Override
+    public void animateMessage(NodeLogic to) {
+        noeud voisin = (noeud) to.host;
+        if (!main.shouldAnimate(this, voisin)) return;
+
+        // 1. Sortie de réserve (Cible = Voisin, Source = Moi)
+        Messager leMessager = main.acquireMessager(voisin, this);
+
+        // 2. Placement & Vitesse
+        leMessager.jumpTo(this.getX(), this.getY());
+        leMessager.setSpeed(150);
+
+        // 3. Départ
+        leMessager.moveTo(voisin);
     }
 
 
@@ -256,25 +180,52 @@ public class Agent_Noeud extends Agent {
     // [SECTION: Fonctions Visuelles]
     // ========================================================================
 
-    /** Met à jour l'affichage de la longueur de la chaîne sur le nœud. */
-    void updateVisuals() {
-        // 1. Met à jour le texte (code existant)
-        int chainSize = blockchain.size();
-        chainLengthText.setText("Blocks: " + chainSize);
+    /** Demande la mise à jour de l'affichage de la longueur de la chaîne sur le nœud. */
+    @Override
+    public void updateVisuals() {
+        visualsDirty = true;
+        main.requestRefresh(this);
     }
 
-    /** Allume le voyant du nœud avec une couleur spécifique pendant 1 seconde. */
-    void flash(Color c) {
-        // 1. Allume le voyant avec la couleur donnée
-        voyant_rect.setFillColor(c);
+    /** Allume le voyant du nœud avec une couleur spécifique pendant 1 seconde (au prochain rafraîchissement). */
+    @Override
+    public void flash(Color c) {
+        pendingFlash = c;
+        main.requestRefresh(this);
+    }
+
+    /**
+     * Applique les changements d'affichage en attente (appelé par main.uiRefreshAction).
+     * @return Vrai si le nœud doit rester inscrit (voyant allumé ou protection anti-écho en cours).
+     */
+    public boolean refreshVisuals(double now) {
+        // 1. Met à jour le texte
+        if (visualsDirty) {
+            chainLengthText.setText("Blocks: " + logic.chainLength());
+            visualsDirty = false;
+        }
 
-        // 2. Planifie de l'éteindre
-        revertColorEvent.restart(1, SECOND);
+        // 2. Allume le voyant avec la dernière couleur demandée, ou l'éteint après 1 seconde
+        if (pendingFlash != null) {
+            voyant_rect.setFillColor(pendingFlash);
+            pendingFlash = null;
+            flashEndTime = now + 1;
+        } else if (flashEndTime >= 0 && now >= flashEndTime) {
+            revertColorAction();
+            flashEndTime = -1;
+        }
+
+        // 3. Fin de la protection anti-écho
+        if (visuelResetTime >= 0 && now >= visuelResetTime) {
+            visuelDejaRecu = false;
+            visuelResetTime = -1;
+        }
+        return flashEndTime >= 0 || visuelResetTime >= 0;
     }
-    
-    /** Action exécutée par l'événement revertColorEvent */
+
+    /** Remet le voyant en couleur "éteint". */
     void revertColorAction() {
         // Remet le voyant en couleur "éteint" (gris foncé)
         voyant_rect.setFillColor(Color.DARK_GRAY);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Échéancier du moteur autonome : file de priorité d'événements datés.
+ * <p>
+ * Tas binaire indexé : chaque événement connaît sa position, ce qui permet une annulation
+ * en O(log n) (les découvertes de bloc annulées à chaque changement de sommet ne s'accumulent pas).
+ * Les événements simultanés sont exécutés dans leur ordre de planification, ce qui rend
+ * une exécution entièrement reproductible à graine égale.
+ */
+public class EventScheduler {
+
+    private SimEvent[] heap = new SimEvent[1024];
+    private int size;
+    private long nextSeq;
+    private double now;
+    private long eventsProcessed;
+
+    /** @return La date simulée courante (secondes). */
+    public double now() {
+        return now;
+    }
+
+    /** @return Le nombre d'événements en attente. */
+    public int size() {
+        return size;
+    }
+
+    /** @return Le nombre d'événements exécutés depuis le début. */
+    public long eventsProcessed() {
+        return eventsProcessed;
+    }
+
+    /**
+     * Planifie un événement après un délai (replanifie s'il était déjà en attente).
+     * @param delay Délai en secondes simulées (0 = à la date courante, après les événements déjà prévus).
+     */
+    public void schedule(SimEvent event, double delay) {
+        if (delay < 0 || Double.isNaN(delay)) {
+            throw new IllegalArgumentException("Délai invalide : " + delay);
+        }
+        if (event.isScheduled()) cancel(event);
+
+        event.time = now + delay;
+        event.seq = nextSeq++;
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = event;
+        event.heapIndex = size;
+        size++;
+        siftUp(event.heapIndex);
+    }
+
+    /**
+     * Planifie un événement à une date absolue (message venu d'une autre partition du moteur parallèle) :
+     * la date calculée par l'expéditeur est reprise telle quelle, sans arrondi.
+     */
+    public void scheduleAt(SimEvent event, double time) {
+        if (time < now || Double.isNaN(time)) {
+            throw new IllegalArgumentException("Date passée : " + time + " (horloge " + now + ")");
+        }
+        if (event.isScheduled()) cancel(event);
+
+        event.time = time;
+        event.seq = nextSeq++;
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = event;
+        event.heapIndex = size;
+        size++;
+        siftUp(event.heapIndex);
+    }
+
+    /** Retire un événement en attente (sans effet s'il ne l'est pas). */
+    public void cancel(SimEvent event) {
+        int i = event.heapIndex;
+        if (i < 0) return;
+
+        size--;
+        SimEvent last = heap[size];
+        heap[size] = null;
+        event.heapIndex = -1;
+        if (i == size) return;
+
+        heap[i] = last;
+        last.heapIndex = i;
+        siftDown(i);
+        if (last.heapIndex == i) siftUp(i);
+    }
+
+    /** @return La date du prochain événement ({@link Double#POSITIVE_INFINITY} si l'échéancier est vide). */
+    public double nextTime() {
+        return size > 0 ? heap[0].time : Double.POSITIVE_INFINITY;
+    }
+
+    /** @return Les événements en attente, dans un ordre quelconque (copie). */
+    public List<SimEvent> pending() {
+        return new ArrayList<>(Arrays.asList(heap).subList(0, size));
+    }
+
+    /** @return Le prochain numéro de planification (à sauvegarder avec l'horloge). */
+    public long nextSeq() {
+        return nextSeq;
+    }
+
+    /** Restaure l'horloge d'une simulation sauvegardée (échéancier vide). */
+    void restoreClock(double now, long nextSeq, long eventsProcessed) {
+        this.now = now;
+        this.nextSeq = nextSeq;
+        this.eventsProcessed = eventsProcessed;
+    }
+
+    /** Replace un événement sauvegardé à sa date et à son rang d'origine. */
+    void restore(SimEvent event, double time, long seq) {
+        if (event.isScheduled()) cancel(event);
+        event.time = time;
+        event.seq = seq;
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = event;
+        event.heapIndex = size;
+        size++;
+        siftUp(event.heapIndex);
+    }
+
+    /**
+     * Exécute les événements dans l'ordre chronologique jusqu'à la date donnée (incluse).
+     * @return Le nombre d'événements exécutés.
+     */
+    public long runUntil(double endTime) {
+        long executed = 0;
+        while (size > 0 && heap[0].time <= endTime) {
+            SimEvent event = heap[0];
+            cancel(event);
+            now = event.time;
+            event.run();
+            executed++;
+        }
+        if (now < endTime) now = endTime;
+        eventsProcessed += executed;
+        return executed;
+    }
+
+
+    /**
+     * Exécute les événements STRICTEMENT antérieurs à la date donnée (fenêtre du moteur parallèle :
+     * un événement à cette date pourrait encore être précédé d'un message d'une autre partition).
+     * L'horloge reste à la date du dernier événement exécuté.
+     * @return Le nombre d'événements exécutés.
+     */
+    public long runBefore(double limit) {
+        long executed = 0;
+        while (size > 0 && heap[0].time < limit) {
+            SimEvent event = heap[0];
+            cancel(event);
+            now = event.time;
+            event.run();
+            executed++;
+        }
+        eventsProcessed += executed;
+        return executed;
+    }
+
+
+    // --- Tas binaire (ordre : date, puis numéro de planification) ---
+
+    private static boolean before(SimEvent a, SimEvent b) {
+        return a.time < b.time || (a.time == b.time && a.seq < b.seq);
+    }
+
+    private void siftUp(int i) {
+        SimEvent event = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            SimEvent p = heap[parent];
+            if (!before(event, p)) break;
+            heap[i] = p;
+            p.heapIndex = i;
+            i = parent;
+        }
+        heap[i] = event;
+        event.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        SimEvent event = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) child = right;
+            SimEvent c = heap[child];
+            if (!before(c, event)) break;
+            heap[i] = c;
+            c.heapIndex = i;
+            i = child;
+        }
+        heap[i] = event;
+        event.heapIndex = i;
+    }
+}
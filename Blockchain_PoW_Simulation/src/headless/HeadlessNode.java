@@ -0,0 +1,167 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nœud du moteur autonome : fournit à {@link NodeLogic} le temps, l'aléa et les messages
+ * de l'échéancier, sans aucun affichage.
+ */
+public class HeadlessNode implements NodeHost {
+
+    public final int index;
+    public final NodeLogic logic;
+    public final SimRandom random;
+
+    /** Voisins (connexions P2P, non orientées). */
+    public final List<NodeLogic> peers = new ArrayList<>();
+
+    private final HeadlessSimulation simulation;
+    private final EventScheduler scheduler;
+
+    /** Découverte de bloc (mode STATISTICAL), replanifiée à chaque changement de sommet. */
+    final SimEvent solveEvent = new SimEvent() {
+        @Override
+        public void run() {
+            logic.solve();
+        }
+    };
+
+    /** Équivalent de la transition 'Mining' du Statechart (modes avec hachage réel). */
+    final SimEvent miningTickEvent = new SimEvent() {
+        @Override
+        public void run() {
+            logic.miningTick();
+            scheduler.schedule(this, logic.context.config.miningTickPeriod);
+        }
+    };
+
+    /** Émission de la prochaine transaction (si config.transactionRate > 0). */
+    final SimEvent transactionEvent = new SimEvent() {
+        @Override
+        public void run() {
+            logic.generateTransaction();
+        }
+    };
+
+    public HeadlessNode(HeadlessSimulation simulation, int index, SimRandom random) {
+        this.simulation = simulation;
+        this.scheduler = simulation.schedulerOf(index);
+        this.index = index;
+        this.random = random;
+        this.logic = new NodeLogic(this, simulation.context);
+    }
+
+    /** Démarre le nœud une fois la topologie construite. */
+    public void start() {
+        logic.start();
+        if (logic.context.config.miningMode != MiningMode.STATISTICAL) {
+            // Phase aléatoire : des mineurs synchrones construiraient exactement le même bloc (même horodatage)
+            scheduler.schedule(miningTickEvent, random.uniform(0, logic.context.config.miningTickPeriod));
+        }
+    }
+
+    /** Crée une connexion bidirectionnelle avec un autre nœud. */
+    public void connectTo(HeadlessNode other) {
+        peers.add(other.logic);
+        other.peers.add(logic);
+    }
+
+
+    // ========================================================================
+    // [SECTION: NodeHost -> Moteur autonome]
+    // ========================================================================
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public List<NodeLogic> peers() {
+        return peers;
+    }
+
+    @Override
+    public void sendMessage(NetworkMessage message, NodeLogic to, double delaySeconds) {
+        // Comme send() d'AnyLogic, un envoi immédiat est remis après l'action en cours
+        Delivery delivery = new Delivery(message, logic, to);
+        double delay = Math.max(0, delaySeconds);
+        PartitionedScheduler partitions = simulation.partitions();
+        if (partitions == null) {
+            scheduler.schedule(delivery, delay);
+        } else {
+            partitions.send(index, to.index(), delivery, scheduler.now() + delay);
+        }
+    }
+
+    @Override
+    public double randomUniform(double min, double max) {
+        return random.uniform(min, max);
+    }
+
+    @Override
+    public double randomExponential(double rate) {
+        return random.exponential(rate);
+    }
+
+    @Override
+    public void scheduleSolve(double delaySeconds) {
+        scheduler.schedule(solveEvent, delaySeconds);
+    }
+
+    @Override
+    public void scheduleTransaction(double delaySeconds) {
+        scheduler.schedule(transactionEvent, delaySeconds);
+    }
+
+    @Override
+    public double now() {
+        return scheduler.now();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        // Horodatage dérivé du temps simulé : les hash des blocs sont reproductibles
+        return (long) (scheduler.now() * 1000);
+    }
+
+    @Override
+    public void trace(String line) {
+        System.out.println("[" + String.format("%.3f", scheduler.now()) + "] " + line);
+    }
+
+    @Override
+    public void flash(Color color) {
+    }
+
+    @Override
+    public void updateVisuals() {
+    }
+
+    @Override
+    public void onBlockMined() {
+    }
+
+    @Override
+    public void animateMessage(NodeLogic to) {
+    }
+
+
+    /** Remise d'un message à son destinataire. */
+    static final class Delivery extends SimEvent {
+        final NetworkMessage message;
+        final NodeLogic from;
+        final NodeLogic to;
+
+        Delivery(NetworkMessage message, NodeLogic from, NodeLogic to) {
+            this.message = message;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            to.onMessage(message, from);
+        }
+    }
+}
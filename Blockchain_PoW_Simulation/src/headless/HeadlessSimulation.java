@@ -0,0 +1,365 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Simulation autonome (sans AnyLogic ni interface graphique) du réseau de mineurs.
+ * <p>
+ * Exécute la même {@link NodeLogic} que les agents AnyLogic sur un échéancier à événements
+ * discrets, à pleine vitesse CPU : adaptée aux grands réseaux (10 000 nœuds et plus)
+ * et aux campagnes d'expériences sur des machines sans affichage.
+ * <pre>
+ * mvn -B package
+ * java -cp target/classes HeadlessSimulation nodes=10000 duration=3600 mode=STATISTICAL relay=INVENTORY seed=42
+ * java -cp target/classes HeadlessSimulation nodes=10000 duration=3600 hashrate=0.002
+ * mvn -B package -Psimd
+ * java --add-modules jdk.incubator.vector -cp target/classes HeadlessSimulation mode=PARALLEL difficulty=6 kernel=vector
+ * java -cp target/classes HeadlessSimulation nodes=10000 duration=3600 snapshotAt=1800 snapshot=t1800.snap
+ * java -cp target/classes HeadlessSimulation resume=t1800.snap duration=3600
+ * java -cp target/classes HeadlessSimulation nodes=10000 duration=36000 latency=true metrics=run1 metricsInterval=600
+ * java -cp target/classes HeadlessSimulation nodes=100000 duration=3600 latency=true partitions=8
+ * </pre>
+ */
+public class HeadlessSimulation {
+
+    public final SimulationConfig config;
+    public final SimulationContext context;
+    public final EventScheduler scheduler = new EventScheduler();
+    public final List<HeadlessNode> nodes = new ArrayList<>();
+    public final long seed;
+
+    /** Intervalle moyen entre deux blocs du réseau visé quand {@code hashrate} n'est pas donné (secondes simulées). */
+    public static final double DEFAULT_BLOCK_INTERVAL = 600;
+
+    /** Moteur parallèle par partitions de nœuds ({@code null} = échéancier unique). */
+    private PartitionedScheduler partitions;
+
+    public HeadlessSimulation(SimulationConfig config, long seed) {
+        this.config = config;
+        this.context = new SimulationContext(config);
+        this.seed = seed;
+    }
+
+    /**
+     * Crée les nœuds et leurs connexions, puis les démarre.
+     * @param nodeCount Nombre de mineurs (supérieur au degré de la topologie).
+     */
+    public void build(int nodeCount) throws IOException {
+        build(nodeCount, 1);
+    }
+
+    /**
+     * Crée les nœuds et leurs connexions, répartis sur plusieurs threads, puis les démarre.
+     * @param partitionCount Nombre de partitions ({@link PartitionedScheduler}), 1 = échéancier unique.
+     */
+    public void build(int nodeCount, int partitionCount) throws IOException {
+        if (partitionCount > 1) {
+            partitions = new PartitionedScheduler(context, scheduler, partitionCount, nodeCount);
+        }
+
+        // 1. Créer les nœuds (un générateur aléatoire indépendant par nœud)
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new HeadlessNode(this, i, SimRandom.forStream(seed, i)));
+        }
+
+        // 2. Topologie P2P (même constructeur que Agent_Main)
+        for (int[] edge : TopologyBuilder.build(config, nodeCount, SimRandom.forStream(seed, -1))) {
+            nodes.get(edge[0]).connectTo(nodes.get(edge[1]));
+        }
+
+        // 3. Démarrer (puissance de hachage, premières découvertes)
+        for (HeadlessNode node : nodes) {
+            node.start();
+        }
+    }
+
+    /** Fait avancer la simulation jusqu'à la date donnée (secondes simulées). */
+    public void runUntil(double endTime) {
+        if (partitions != null) partitions.runUntil(endTime);
+        else scheduler.runUntil(endTime);
+    }
+
+    /** @return Le moteur parallèle, ou {@code null} si tous les nœuds partagent {@link #scheduler}. */
+    public PartitionedScheduler partitions() {
+        return partitions;
+    }
+
+    /** @return L'échéancier qui exécute les événements du nœud d'index donné. */
+    EventScheduler schedulerOf(int nodeIndex) {
+        return partitions != null ? partitions.schedulerOf(nodeIndex) : scheduler;
+    }
+
+    /** @return Le nombre d'événements exécutés depuis le début (toutes partitions confondues). */
+    public long eventsProcessed() {
+        return partitions != null ? partitions.eventsProcessed() : scheduler.eventsProcessed();
+    }
+
+    /** @return La hauteur du sommet le plus travaillé parmi les nœuds. */
+    public int bestHeight() {
+        int best = 0;
+        for (HeadlessNode node : nodes) {
+            best = Math.max(best, node.logic.tip.height);
+        }
+        return best;
+    }
+
+    /** @return Le sommet le plus travaillé parmi les nœuds. */
+    public Block bestTip() {
+        Block best = context.blockTree.genesis();
+        for (HeadlessNode node : nodes) {
+            if (node.logic.tip.chainWork > best.chainWork) best = node.logic.tip;
+        }
+        return best;
+    }
+
+    /** @return La part des nœuds dont le sommet est celui du nœud le plus avancé (consensus). */
+    public double consensusRatio() {
+        Block best = bestTip();
+        int agreeing = 0;
+        for (HeadlessNode node : nodes) {
+            if (node.logic.tip == best) agreeing++;
+        }
+        return (double) agreeing / nodes.size();
+    }
+
+    /** @return La logique de chaque nœud, dans l'ordre des index. */
+    public List<NodeLogic> nodeLogics() {
+        List<NodeLogic> logics = new ArrayList<>(nodes.size());
+        for (HeadlessNode node : nodes) logics.add(node.logic);
+        return logics;
+    }
+
+    /**
+     * Fait avancer la simulation jusqu'à la date donnée en ajoutant une ligne d'indicateurs
+     * ({@link SimulationMetrics#csvRow}) à chaque multiple de {@code interval}.
+     * @param series Destination des lignes (sans effet si {@code null} ou {@code interval <= 0}).
+     */
+    public void runUntil(double endTime, PrintWriter series, double interval) {
+        if (series == null || interval <= 0) {
+            runUntil(endTime);
+            return;
+        }
+        double next = (Math.floor(scheduler.now() / interval) + 1) * interval;
+        while (next <= endTime) {
+            runUntil(next);
+            series.println(context.metrics.csvRow(bestTip(), next));
+            next += interval;
+        }
+        runUntil(endTime);
+        series.flush();
+    }
+
+    /**
+     * @return La puissance de hachage par nœud pour que tout le réseau trouve en moyenne un bloc
+     *         toutes les {@code blockInterval} secondes (16^difficulté essais par bloc).
+     */
+    public static double hashRateFor(int nodeCount, int difficulty, double blockInterval) {
+        return Math.pow(16, difficulty) / (blockInterval * nodeCount);
+    }
+
+    /** @return Le nombre de transactions émises par l'ensemble des nœuds. */
+    public long createdTransactions() {
+        long total = 0;
+        for (HeadlessNode node : nodes) {
+            total += node.logic.transactionSequence;
+        }
+        return total;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Lancement en ligne de commande]
+    // ========================================================================
+
+    /**
+     * Arguments {@code clé=valeur} : nodes, duration (secondes simulées), mode (MiningMode),
+     * relay (RelayMode), difficulty, seed, latency (true/false), hashrate (hash par seconde et par nœud),
+     * blockInterval (secondes), topology (TopologyModel),
+     * degree, rewiring, edges (fichier, implique topology=FILE), store (journal de blocs), window,
+     * txrate (transactions par seconde et par nœud), blocktx (transactions par bloc), txsize,
+     * kernel (noyau de minage : auto, scalar, vector), lanes (4, 8, 16), trace (TraceLevel, OFF
+     * par défaut ; verbose=true équivaut à trace=DEBUG).
+     * <p>
+     * Puissance de hachage : en mode STATISTICAL sans {@code hashrate}, elle est calculée pour un bloc
+     * toutes les {@code blockInterval} secondes sur tout le réseau (600 par défaut), quels que soient
+     * la taille du réseau et la difficulté. Les modes à hachage réel gardent le réglage de l'interface
+     * AnyLogic ({@code averageHashRate}, 1000 hash/s par nœud).
+     * <p>
+     * Grand réseau sur plusieurs cœurs : {@code partitions=P} répartit les nœuds sur P threads
+     * ({@link PartitionedScheduler} : exige latency=true, résultats identiques à partitions=1).
+     * <p>
+     * Indicateurs : {@code metrics=prefixe} écrit {@code prefixe.json} et {@code prefixe-nodes.csv}
+     * en fin de simulation ; avec {@code metricsInterval=T}, {@code prefixe-series.csv} reçoit en plus
+     * une ligne toutes les T secondes simulées.
+     * <p>
+     * Sauvegarde et reprise : {@code snapshotAt=T snapshot=fichier} sauvegarde l'état à la date T
+     * puis poursuit ; {@code resume=fichier} repart d'une sauvegarde (nodes, seed et topologie sont
+     * ceux de la sauvegarde, les autres paramètres donnés remplacent ses réglages).
+     */
+    public static void main(String[] args) throws IOException {
+        // 1. Lire les arguments
+        LinkedHashMap<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Argument attendu sous la forme clé=valeur : " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String resume = options.remove("resume");
+        String snapshot = options.remove("snapshot");
+        double snapshotAt = Double.parseDouble(options.getOrDefault("snapshotAt", "-1"));
+        options.remove("snapshotAt");
+
+        // 2. Réglages : ceux de la sauvegarde à reprendre, sinon les valeurs par défaut
+        SimulationConfig config;
+        if (resume != null) {
+            config = SimulationSnapshot.readConfig(Paths.get(resume));
+        } else {
+            config = new SimulationConfig();
+            config.miningMode = MiningMode.STATISTICAL;
+        }
+        int nodeCount = 1000;
+        double duration = 3600;
+        long seed = 1;
+        int difficulty = -1;
+        String kernel = MiningKernel.AUTO;
+        int lanes = 0;
+        TraceLevel traceLevel = TraceLevel.OFF;
+        String metrics = null;
+        double metricsInterval = 0;
+        int partitionCount = 1;
+        double hashRate = -1;
+        double blockInterval = DEFAULT_BLOCK_INTERVAL;
+
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            String key = option.getKey();
+            String value = option.getValue();
+            switch (key) {
+                case "nodes": nodeCount = Integer.parseInt(value); break;
+                case "duration": duration = Double.parseDouble(value); break;
+                case "mode": config.miningMode = MiningMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "relay": config.relayMode = RelayMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "difficulty": difficulty = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "latency": config.latencyEnabled = Boolean.parseBoolean(value); break;
+                case "hashrate": hashRate = Double.parseDouble(value); break;
+                case "blockInterval": blockInterval = Double.parseDouble(value); break;
+                case "topology": config.topologyModel = TopologyModel.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "degree": config.topologyDegree = Integer.parseInt(value); break;
+                case "rewiring": config.smallWorldRewiring = Double.parseDouble(value); break;
+                case "edges": config.topologyModel = TopologyModel.FILE; config.topologyFile = value; break;
+                case "store": config.blockStorePath = value; break;
+                case "window": config.blockWindow = Integer.parseInt(value); break;
+                case "txrate": config.transactionRate = Double.parseDouble(value); break;
+                case "blocktx": config.maxBlockTransactions = Integer.parseInt(value); break;
+                case "txsize": config.transactionPayloadBytes = Integer.parseInt(value); break;
+                case "kernel": kernel = value.toLowerCase(Locale.ROOT); break;
+                case "lanes": lanes = Integer.parseInt(value); break;
+                case "trace": traceLevel = TraceLevel.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "verbose": traceLevel = Boolean.parseBoolean(value) ? TraceLevel.DEBUG : TraceLevel.OFF; break;
+                case "metrics": metrics = value; break;
+                case "metricsInterval": metricsInterval = Double.parseDouble(value); break;
+                case "partitions": partitionCount = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Paramètre inconnu : " + key);
+            }
+        }
+        if (snapshotAt >= 0 && snapshot == null) {
+            throw new IllegalArgumentException("snapshotAt demande un fichier : snapshot=fichier");
+        }
+        if (metricsInterval > 0 && metrics == null) {
+            throw new IllegalArgumentException("metricsInterval demande un préfixe : metrics=prefixe");
+        }
+        if (partitionCount > 1 && (resume != null || snapshot != null)) {
+            throw new IllegalArgumentException("Sauvegarde et reprise : moteur séquentiel uniquement (partitions=1)");
+        }
+        config.traceLevel = traceLevel;
+        config.metricsPath = metrics;
+        if (partitionCount > 1) config.parallelValidation = false; // Les cœurs sont déjà occupés par les partitions
+
+        MiningKernel miningKernel = MiningKernel.select(kernel, lanes);
+
+        // 3. Construire (ou reprendre) puis exécuter
+        long start = System.nanoTime();
+        HeadlessSimulation simulation;
+        if (resume != null) {
+            simulation = SimulationSnapshot.resume(Paths.get(resume), config);
+            if (difficulty >= 0) Block.difficulty = difficulty; // Blocs créés après la reprise
+            nodeCount = simulation.nodes.size();
+            seed = simulation.seed;
+            System.out.println(String.format(Locale.ROOT, "Reprise de %s à t=%.0f s (%.2f s)",
+                    resume, simulation.scheduler.now(), (System.nanoTime() - start) / 1e9));
+        } else {
+            if (difficulty >= 0) Block.difficulty = difficulty; // Avant la création du Genesis
+            simulation = new HeadlessSimulation(config, seed);
+        }
+        if (hashRate > 0) {
+            config.averageHashRate = hashRate;
+        } else if (resume == null && config.miningMode == MiningMode.STATISTICAL) {
+            config.averageHashRate = hashRateFor(nodeCount, Block.difficulty, blockInterval);
+        }
+        if (resume == null) simulation.build(nodeCount, partitionCount);
+
+        PrintWriter series = null;
+        if (metricsInterval > 0) {
+            series = new PrintWriter(Files.newBufferedWriter(Paths.get(metrics + "-series.csv"), StandardCharsets.UTF_8));
+            series.println(SimulationMetrics.CSV_HEADER);
+        }
+        if (snapshotAt >= 0 && snapshotAt > simulation.scheduler.now()) {
+            simulation.runUntil(Math.min(snapshotAt, duration), series, metricsInterval);
+            long saveStart = System.nanoTime();
+            SimulationSnapshot.save(simulation, Paths.get(snapshot));
+            System.out.println(String.format(Locale.ROOT, "Sauvegarde %s à t=%.0f s (%.2f s)",
+                    snapshot, simulation.scheduler.now(), (System.nanoTime() - saveStart) / 1e9));
+        }
+        simulation.runUntil(duration, series, metricsInterval);
+        if (series != null) series.close();
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        long events = simulation.eventsProcessed();
+        System.out.println(String.format(Locale.ROOT,
+                "%d nœuds, %.0f s simulées (%s, relais %s, topologie %s degré %d, difficulté %d, latence %s, graine %d)",
+                nodeCount, duration, config.miningMode, config.relayMode, config.topologyModel,
+                config.topologyDegree, Block.difficulty, config.latencyEnabled, seed));
+        System.out.println(String.format(Locale.ROOT,
+                "Hauteur max %d, blocs dans l'arbre %d (%d en mémoire), consensus %.1f %%",
+                simulation.bestHeight(), simulation.context.blockTree.size() - 1,
+                simulation.context.blockTree.sizeInMemory(), 100 * simulation.consensusRatio()));
+        if (config.transactionRate > 0) {
+            long confirmed = simulation.context.blockTree.transactionCount(simulation.bestTip());
+            System.out.println(String.format(Locale.ROOT,
+                    "Transactions : %d émises, %d confirmées (%.2f tx/s)",
+                    simulation.createdTransactions(), confirmed, confirmed / simulation.scheduler.now()));
+        }
+        ChainValidator validator = simulation.context.validator;
+        System.out.println(String.format(Locale.ROOT,
+                "Validation : %d blocs hachés, %d vérifications évitées par le cache",
+                validator.verifiedBlocks, validator.cacheHits));
+        if (miningKernel.attempts.sum() > 0) {
+            System.out.println(String.format(Locale.ROOT,
+                    "Noyau de minage %s : %d tentatives, %.0f tentatives/s par thread",
+                    miningKernel, miningKernel.attempts.sum(), miningKernel.attemptsPerSecond()));
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "%d événements en %.2f s (%.0f événements/s)", events, wallSeconds, events / wallSeconds));
+        PartitionedScheduler partitions = simulation.partitions();
+        if (partitions != null) {
+            System.out.println(String.format(Locale.ROOT,
+                    "Moteur partitionné : %d partitions, horizon %.3f s, %d fenêtres, %d messages inter-partitions",
+                    partitions.partitions(), partitions.lookahead(), partitions.windows(), partitions.crossMessages()));
+            partitions.shutdown();
+        }
+        System.out.println(simulation.context.metrics.summary(simulation.bestTip()));
+        System.out.println(simulation.context.networkStats.summary());
+        if (metrics != null) {
+            simulation.context.metrics.export(metrics, simulation.bestTip(), simulation.nodeLogics(), simulation.scheduler.now());
+            System.out.println("Indicateurs écrits dans " + metrics + ".json et " + metrics + "-nodes.csv");
+        }
+        if (simulation.context.blockTree.store() != null) simulation.context.blockTree.store().close();
+    }
+}
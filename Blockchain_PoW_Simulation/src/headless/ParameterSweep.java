@@ -0,0 +1,334 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Balayage de paramètres de Monte-Carlo : de nombreuses réplications autonomes et indépendantes
+ * ({@link HeadlessSimulation}) exécutées en parallèle sur tous les cœurs, agrégées en un rapport.
+ * <p>
+ * Chaque point du plan (produit cartésien des listes de difficultés, tailles de réseau, degrés
+ * et bornes de latence) est répété {@code replications} fois. La réplication {@code r} utilise
+ * la graine {@code seed + r} quel que soit le point : les points sont comparés sur les mêmes tirages
+ * (nombres aléatoires communs), et un point relancé seul redonne exactement les mêmes résultats.
+ * <p>
+ * Les réplications ne partagent rien : contexte, arbre de blocs, générateurs et compteurs propres,
+ * validation des segments sur le thread de la réplication. Seule la difficulté est globale
+ * ({@link Block#difficulty}) : les points sont donc exécutés par lots de même difficulté.
+ * <pre>
+ * mvn -B package
+ * java -cp target/classes ParameterSweep difficulty=5,6 nodes=100,1000 degree=4,8 relayLatency=0.5:3,1:6 replications=100 report=sweep.csv
+ * </pre>
+ */
+public class ParameterSweep {
+
+    /** Un point du plan d'expériences. */
+    static final class Point {
+        final int difficulty;
+        final int nodes;
+        final int degree;
+        final double[] minedLatency;
+        final double[] relayLatency;
+
+        Point(int difficulty, int nodes, int degree, double[] minedLatency, double[] relayLatency) {
+            this.difficulty = difficulty;
+            this.nodes = nodes;
+            this.degree = degree;
+            this.minedLatency = minedLatency;
+            this.relayLatency = relayLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "difficulté %d, %d nœuds, degré %d, latence %.2f-%.2f / %.2f-%.2f s",
+                    difficulty, nodes, degree, minedLatency[0], minedLatency[1], relayLatency[0], relayLatency[1]);
+        }
+    }
+
+    /** Indicateurs d'une réplication (voir {@link #METRICS}). */
+    static final class Replication {
+        final Point point;
+        final long seed;
+        final double[] values;
+
+        Replication(Point point, long seed, double[] values) {
+            this.point = point;
+            this.seed = seed;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Indicateurs agrégés : part de blocs périmés (taux de fork), réorganisations par bloc miné,
+     * blocs reçus avant leur parent par bloc et par nœud (taux d'orphelins), finalité médiane et p90
+     * (secondes jusqu'à la confirmation demandée), propagation médiane à tous les nœuds, messages de relais
+     * par bloc, hauteur atteinte, temps réel de la réplication.
+     */
+    static final String[] METRICS = {"staleRate", "reorgsPerBlock", "orphanRate", "finalityMedian", "finalityP90",
+            "propagationMedian", "messagesPerBlock", "height", "wallSeconds"};
+
+    // --- Réglages communs à tous les points ---
+    private MiningMode miningMode = MiningMode.STATISTICAL;
+    private RelayMode relayMode = RelayMode.INVENTORY;
+    private TopologyModel topologyModel = TopologyModel.RANDOM;
+    private double hashRate = -1; // STATISTICAL : un bloc toutes les 600 s sur le réseau, quel que soit le point
+    private double duration = 36_000;
+    private int confirmations = 6;
+
+    /** @return Les réglages d'une réplication de ce point (une instance par réplication). */
+    SimulationConfig configFor(Point point) {
+        SimulationConfig config = new SimulationConfig();
+        config.miningMode = miningMode;
+        config.relayMode = relayMode;
+        config.topologyModel = topologyModel;
+        config.topologyDegree = point.degree;
+        if (hashRate > 0) {
+            config.averageHashRate = hashRate;
+        } else if (miningMode == MiningMode.STATISTICAL) {
+            config.averageHashRate = HeadlessSimulation.hashRateFor(point.nodes, point.difficulty, HeadlessSimulation.DEFAULT_BLOCK_INTERVAL);
+        }
+        config.latencyEnabled = true;
+        config.minedLatencyMin = point.minedLatency[0];
+        config.minedLatencyMax = point.minedLatency[1];
+        config.relayLatencyMin = point.relayLatency[0];
+        config.relayLatencyMax = point.relayLatency[1];
+        config.traceLevel = TraceLevel.OFF;
+        config.parallelValidation = false; // Les cœurs sont déjà occupés par les autres réplications
+        return config;
+    }
+
+    /** Exécute une réplication (sur le thread appelant) et relève ses indicateurs. */
+    Replication run(Point point, long seed) {
+        long start = System.nanoTime();
+        HeadlessSimulation simulation = new HeadlessSimulation(configFor(point), seed);
+        try {
+            simulation.build(point.nodes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        simulation.runUntil(duration);
+
+        Block best = simulation.bestTip();
+        SimulationMetrics metrics = simulation.context.metrics;
+        long mined = Math.max(1, metrics.blocksMined.sum());
+        SimulationMetrics.Histogram finality = metrics.timeToFinality(best, confirmations);
+        double[] values = {
+            metrics.staleRate(best),
+            (double) metrics.reorgs.sum() / mined,
+            (double) metrics.orphanBlocks.sum() / mined / point.nodes,
+            finality.count() == 0 ? Double.NaN : finality.percentile(0.5) / 1000.0,
+            finality.count() == 0 ? Double.NaN : finality.percentile(0.9) / 1000.0,
+            metrics.propagation100.count() == 0 ? Double.NaN : metrics.propagation100.percentile(0.5) / 1000.0,
+            metrics.messagesPerBlock(),
+            best.height,
+            (System.nanoTime() - start) / 1e9
+        };
+        return new Replication(point, seed, values);
+    }
+
+
+    // ========================================================================
+    // [SECTION: Lancement en ligne de commande]
+    // ========================================================================
+
+    /**
+     * Listes (séparées par des virgules) : difficulty, nodes, degree, minedLatency et relayLatency
+     * (bornes {@code min:max} en secondes simulées). Valeurs uniques : replications, duration, seed,
+     * threads (défaut : nombre de cœurs), mode (MiningMode, sauf PARALLEL), relay, topology, hashrate
+     * (défaut en mode STATISTICAL : un bloc toutes les 600 s sur le réseau),
+     * confirmations (profondeur de finalité), report (rapport agrégé CSV), raw (une ligne par réplication).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ParameterSweep sweep = new ParameterSweep();
+        SimulationConfig defaults = new SimulationConfig();
+        List<Integer> difficulties = List.of(Block.difficulty);
+        List<Integer> nodeCounts = List.of(100);
+        List<Integer> degrees = List.of(defaults.topologyDegree);
+        List<double[]> minedLatencies = List.of(new double[] {defaults.minedLatencyMin, defaults.minedLatencyMax});
+        List<double[]> relayLatencies = List.of(new double[] {defaults.relayLatencyMin, defaults.relayLatencyMax});
+        int replications = 10;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String report = "sweep.csv";
+        String raw = null;
+
+        // 1. Lire les arguments
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Argument attendu sous la forme clé=valeur : " + arg);
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "difficulty": difficulties = intList(value); break;
+                case "nodes": nodeCounts = intList(value); break;
+                case "degree": degrees = intList(value); break;
+                case "minedLatency": minedLatencies = rangeList(value); break;
+                case "relayLatency": relayLatencies = rangeList(value); break;
+                case "replications": replications = Integer.parseInt(value); break;
+                case "duration": sweep.duration = Double.parseDouble(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "mode": sweep.miningMode = MiningMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "relay": sweep.relayMode = RelayMode.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "topology": sweep.topologyModel = TopologyModel.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "hashrate": sweep.hashRate = Double.parseDouble(value); break;
+                case "confirmations": sweep.confirmations = Integer.parseInt(value); break;
+                case "report": report = value; break;
+                case "raw": raw = value; break;
+                default: throw new IllegalArgumentException("Paramètre inconnu : " + arg);
+            }
+        }
+        if (sweep.miningMode == MiningMode.PARALLEL) {
+            throw new IllegalArgumentException("Mode PARALLEL exclu : ses workers occupent déjà tous les cœurs");
+        }
+
+        // 2. Plan d'expériences, regroupé par difficulté (seul réglage global)
+        Map<Integer, List<Point>> byDifficulty = new LinkedHashMap<>();
+        for (int difficulty : difficulties) {
+            List<Point> points = byDifficulty.computeIfAbsent(difficulty, d -> new ArrayList<>());
+            for (int nodes : nodeCounts) {
+                for (int degree : degrees) {
+                    for (double[] mined : minedLatencies) {
+                        for (double[] relay : relayLatencies) {
+                            points.add(new Point(difficulty, nodes, degree, mined, relay));
+                        }
+                    }
+                }
+            }
+        }
+
+        // 3. Exécution : toutes les réplications d'une difficulté à la fois, sur tous les cœurs
+        long start = System.nanoTime();
+        int savedDifficulty = Block.difficulty;
+        Map<Point, List<Replication>> results = new LinkedHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Map.Entry<Integer, List<Point>> group : byDifficulty.entrySet()) {
+                Block.difficulty = group.getKey();
+                List<Callable<Replication>> tasks = new ArrayList<>();
+                for (Point point : group.getValue()) {
+                    results.put(point, new ArrayList<>());
+                    for (int r = 0; r < replications; r++) {
+                        long replicationSeed = seed + r;
+                        tasks.add(() -> sweep.run(point, replicationSeed));
+                    }
+                }
+                for (Future<Replication> future : pool.invokeAll(tasks)) {
+                    Replication replication = future.get();
+                    results.get(replication.point).add(replication);
+                }
+                System.out.println(String.format(Locale.ROOT, "Difficulté %d : %d réplications terminées (%.1f s)",
+                        group.getKey(), tasks.size(), (System.nanoTime() - start) / 1e9));
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Réplication en échec", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            Block.difficulty = savedDifficulty;
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        // 4. Rapports
+        writeReport(Paths.get(report), results);
+        if (raw != null) writeRaw(Paths.get(raw), results);
+        for (Map.Entry<Point, List<Replication>> e : results.entrySet()) {
+            double[][] stats = aggregate(e.getValue());
+            System.out.println(String.format(Locale.ROOT,
+                    "%s : périmés %.2f %% ± %.2f, réorg./bloc %.2f, orphelins %.4f, finalité %.0f s, propagation %.1f s",
+                    e.getKey(), 100 * stats[0][0], 100 * stats[0][1], stats[1][0], stats[2][0], stats[3][0], stats[5][0]));
+        }
+        int total = results.size() * replications;
+        System.out.println(String.format(Locale.ROOT, "%d réplications en %.1f s sur %d threads (%.2f réplications/s), rapport : %s",
+                total, wallSeconds, threads, total / wallSeconds, report));
+    }
+
+    /** @return Pour chaque indicateur, la moyenne et la demi-largeur de l'intervalle de confiance à 95 %. */
+    static double[][] aggregate(List<Replication> replications) {
+        double[][] stats = new double[METRICS.length][2];
+        for (int m = 0; m < METRICS.length; m++) {
+            double sum = 0;
+            int n = 0;
+            for (Replication r : replications) {
+                if (!Double.isNaN(r.values[m])) {
+                    sum += r.values[m];
+                    n++;
+                }
+            }
+            double mean = n == 0 ? Double.NaN : sum / n;
+            double squares = 0;
+            for (Replication r : replications) {
+                if (!Double.isNaN(r.values[m])) squares += (r.values[m] - mean) * (r.values[m] - mean);
+            }
+            stats[m][0] = mean;
+            stats[m][1] = n < 2 ? Double.NaN : 1.96 * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+        }
+        return stats;
+    }
+
+    private static final String POINT_HEADER =
+            "difficulty,nodes,degree,minedLatencyMin,minedLatencyMax,relayLatencyMin,relayLatencyMax";
+
+    private static String pointColumns(Point p) {
+        return String.format(Locale.ROOT, "%d,%d,%d,%.3f,%.3f,%.3f,%.3f", p.difficulty, p.nodes, p.degree,
+                p.minedLatency[0], p.minedLatency[1], p.relayLatency[0], p.relayLatency[1]);
+    }
+
+    /** Une ligne par point : moyenne et intervalle de confiance à 95 % de chaque indicateur. */
+    private static void writeReport(Path file, Map<Point, List<Replication>> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder(POINT_HEADER).append(",replications");
+            for (String metric : METRICS) header.append(',').append(metric).append(',').append(metric).append("Ci95");
+            out.println(header);
+            for (Map.Entry<Point, List<Replication>> e : results.entrySet()) {
+                StringBuilder line = new StringBuilder(pointColumns(e.getKey())).append(',').append(e.getValue().size());
+                for (double[] stat : aggregate(e.getValue())) {
+                    line.append(String.format(Locale.ROOT, ",%.6g,%.6g", stat[0], stat[1]));
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    /** Une ligne par réplication (graine comprise, pour rejouer une réplication isolée). */
+    private static void writeRaw(Path file, Map<Point, List<Replication>> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println(POINT_HEADER + ",seed," + String.join(",", METRICS));
+            for (List<Replication> replications : results.values()) {
+                for (Replication r : replications) {
+                    StringBuilder line = new StringBuilder(pointColumns(r.point)).append(',').append(r.seed);
+                    for (double v : r.values) line.append(String.format(Locale.ROOT, ",%.6g", v));
+                    out.println(line);
+                }
+            }
+        }
+    }
+
+    private static List<Integer> intList(String value) {
+        List<Integer> list = new ArrayList<>();
+        for (String item : value.split(",")) list.add(Integer.parseInt(item.trim()));
+        return list;
+    }
+
+    /** @return Les bornes {@code min:max} de chaque élément de la liste. */
+    private static List<double[]> rangeList(String value) {
+        List<double[]> list = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String[] bounds = item.split(":");
+            if (bounds.length != 2) throw new IllegalArgumentException("Bornes attendues sous la forme min:max : " + item);
+            list.add(new double[] {Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1])});
+        }
+        return list;
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moteur autonome parallèle et conservateur : les nœuds sont répartis en partitions contiguës
+ * (par index), chacune avec son propre {@link EventScheduler} exécuté par son propre thread.
+ * <p>
+ * Les nœuds ne communiquent que par messages, et tout message met au moins
+ * {@code min(minedLatencyMin, relayLatencyMin)} secondes à arriver : c'est l'horizon
+ * (lookahead). Si {@code t0} est la date du prochain événement, toutes les partitions peuvent
+ * donc exécuter sans se concerter leurs événements antérieurs à {@code t0 + horizon} : aucun
+ * message encore à émettre ne peut arriver avant. À la fin de chaque fenêtre, les partitions
+ * se synchronisent, puis chacune relève sa boîte aux lettres (un casier par partition émettrice,
+ * relevés dans l'ordre des partitions) et planifie les remises à la date calculée par l'expéditeur.
+ * <p>
+ * Chaque nœud voit ainsi exactement la même suite d'événements qu'avec l'échéancier unique
+ * (même ordre, mêmes dates, même générateur aléatoire) : à graine égale, chaînes, arbre de blocs,
+ * trafic et indicateurs sont identiques à l'exécution séquentielle. Seuls diffèrent l'ordre des
+ * traces et les compteurs du cache de validation ; deux événements d'un même nœud à la même
+ * date exacte (improbable avec des latences tirées au hasard) pourraient aussi être permutés.
+ * <p>
+ * L'état partagé est prévu pour ce mode : arbre de blocs sans journal et validation acceptent
+ * plusieurs threads, la propagation est rejouée dans l'ordre chronologique entre deux fenêtres
+ * ({@link SimulationMetrics#flushPropagation()}). Le mode exige donc la latence réseau, un minage
+ * reproductible (STATISTICAL, ou BATCH sans budget de temps réel) et aucun journal de blocs.
+ */
+public class PartitionedScheduler {
+
+    private final EventScheduler[] schedulers;
+    private final int nodeCount;
+    private final double lookahead;
+    private final SimulationMetrics metrics;
+
+    /** mailboxes[source][cible] : remises émises pendant la fenêtre, écrites par le seul thread source. */
+    private final Mailbox[][] mailboxes;
+
+    /** Messages inter-partitions émis, par partition émettrice. */
+    private final long[] crossMessages;
+
+    private final ExecutorService pool;
+    private final CyclicBarrier barrier;
+
+    /** Fin de la fenêtre en cours : aucun message inter-partitions ne peut arriver avant. */
+    private double windowEnd;
+    private long windows;
+
+    /**
+     * @param first L'échéancier de la première partition (celui de la simulation, dont l'horloge
+     *              sert de référence une fois la fenêtre terminée).
+     * @param partitions Nombre de partitions (et de threads), entre 2 et {@code nodeCount}.
+     * @throws IllegalArgumentException si les réglages ne permettent pas une exécution parallèle reproductible.
+     */
+    public PartitionedScheduler(SimulationContext context, EventScheduler first, int partitions, int nodeCount) {
+        SimulationConfig config = context.config;
+        if (partitions < 2 || partitions > nodeCount) {
+            throw new IllegalArgumentException("Nombre de partitions invalide : " + partitions + " pour " + nodeCount + " nœuds");
+        }
+        if (!config.latencyEnabled) {
+            throw new IllegalArgumentException("Le moteur partitionné exige la latence réseau (latency=true) : elle fixe l'horizon");
+        }
+        if (config.miningMode == MiningMode.PARALLEL || config.batchTimeBudgetMillis > 0) {
+            throw new IllegalArgumentException("Minage non reproductible (" + config.miningMode
+                    + ", budget " + config.batchTimeBudgetMillis + " ms) : STATISTICAL ou BATCH sans budget de temps réel");
+        }
+        if (context.blockTree.store() != null) {
+            throw new IllegalArgumentException("Le moteur partitionné ne prend pas en charge le journal de blocs (store)");
+        }
+        this.lookahead = Math.min(config.minedLatencyMin, config.relayLatencyMin);
+        if (!(lookahead > 0)) {
+            throw new IllegalArgumentException("Latence minimale nulle : aucun horizon pour le moteur partitionné");
+        }
+
+        this.nodeCount = nodeCount;
+        this.metrics = context.metrics;
+        this.schedulers = new EventScheduler[partitions];
+        this.mailboxes = new Mailbox[partitions][partitions];
+        this.crossMessages = new long[partitions];
+        for (int p = 0; p < partitions; p++) {
+            schedulers[p] = p == 0 ? first : new EventScheduler();
+            for (int q = 0; q < partitions; q++) mailboxes[p][q] = new Mailbox();
+        }
+        metrics.deferPropagation();
+
+        this.pool = Executors.newFixedThreadPool(partitions, task -> {
+            Thread thread = new Thread(task, "partition");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.barrier = new CyclicBarrier(partitions);
+    }
+
+    /** @return Le nombre de partitions. */
+    public int partitions() {
+        return schedulers.length;
+    }
+
+    /** @return L'horizon : latence minimale d'un message entre deux nœuds (secondes simulées). */
+    public double lookahead() {
+        return lookahead;
+    }
+
+    /** @return La partition du nœud d'index donné (tranches contiguës d'index). */
+    public int partitionOf(int nodeIndex) {
+        return (int) ((long) nodeIndex * schedulers.length / nodeCount);
+    }
+
+    /** @return L'échéancier de la partition du nœud d'index donné. */
+    public EventScheduler schedulerOf(int nodeIndex) {
+        return schedulers[partitionOf(nodeIndex)];
+    }
+
+    /** @return Le nombre d'événements exécutés par toutes les partitions. */
+    public long eventsProcessed() {
+        long total = 0;
+        for (EventScheduler scheduler : schedulers) total += scheduler.eventsProcessed();
+        return total;
+    }
+
+    /** @return Le nombre de fenêtres (points de synchronisation) exécutées. */
+    public long windows() {
+        return windows;
+    }
+
+    /** @return Le nombre de messages remis d'une partition à une autre. */
+    public long crossMessages() {
+        long total = 0;
+        for (long count : crossMessages) total += count;
+        return total;
+    }
+
+    /**
+     * Planifie la remise d'un message, depuis le thread de la partition de l'expéditeur.
+     * @param time Date de remise, calculée par l'expéditeur (horloge + délai).
+     */
+    void send(int fromIndex, int toIndex, SimEvent delivery, double time) {
+        int source = partitionOf(fromIndex);
+        int target = partitionOf(toIndex);
+        if (source == target) {
+            schedulers[target].scheduleAt(delivery, time);
+            return;
+        }
+        if (time < windowEnd) {
+            throw new IllegalStateException("Message inter-partitions remis avant la fin de la fenêtre ("
+                    + time + " < " + windowEnd + ") : latence inférieure à l'horizon " + lookahead);
+        }
+        mailboxes[source][target].add(delivery, time);
+        crossMessages[source]++;
+    }
+
+    /** Fait avancer toutes les partitions jusqu'à la date donnée (incluse), fenêtre par fenêtre. */
+    public void runUntil(double endTime) {
+        double next = nextTime();
+        while (true) {
+            // Dernière fenêtre : les messages qu'elle émet arrivent tous après endTime
+            boolean last = !(next + lookahead <= endTime);
+            double limit = last ? endTime : next + lookahead;
+            next = runWindow(limit, last);
+            metrics.flushPropagation();
+            if (last) return;
+        }
+    }
+
+    /** Arrête les threads des partitions (la simulation ne peut plus avancer). */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** @return La date du prochain événement, toutes partitions confondues (boîtes aux lettres vides). */
+    private double nextTime() {
+        double next = Double.POSITIVE_INFINITY;
+        for (EventScheduler scheduler : schedulers) next = Math.min(next, scheduler.nextTime());
+        return next;
+    }
+
+    /**
+     * Exécute une fenêtre sur toutes les partitions en parallèle.
+     * @return La date du prochain événement après la fenêtre, messages relevés compris.
+     */
+    private double runWindow(double limit, boolean last) {
+        windowEnd = limit;
+        windows++;
+        List<Callable<Double>> tasks = new ArrayList<>(schedulers.length);
+        for (int p = 0; p < schedulers.length; p++) {
+            int partition = p;
+            tasks.add(() -> window(partition, limit, last));
+        }
+        double next = Double.POSITIVE_INFINITY;
+        try {
+            for (Future<Double> future : pool.invokeAll(tasks)) {
+                next = Math.min(next, future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Partition en échec", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrompue", e);
+        }
+        return next;
+    }
+
+    /** Travail d'une partition pour une fenêtre : exécuter, attendre les autres, relever le courrier. */
+    private double window(int partition, double limit, boolean last) throws InterruptedException, BrokenBarrierException {
+        EventScheduler scheduler = schedulers[partition];
+
+        // 1. Événements de la fenêtre (une erreur est relancée après la barrière, pour ne bloquer personne)
+        RuntimeException failure = null;
+        try {
+            if (last) scheduler.runUntil(limit);
+            else scheduler.runBefore(limit);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        // 2. Toutes les partitions ont fini d'écrire dans les boîtes aux lettres
+        barrier.await();
+        if (failure != null) throw failure;
+
+        // 3. Relever les messages reçus, casier par casier (ordre reproductible)
+        for (Mailbox[] outgoing : mailboxes) {
+            outgoing[partition].drainTo(scheduler);
+        }
+        return scheduler.nextTime();
+    }
+
+
+    /** Remises en attente d'une partition vers une autre (tableaux parallèles, sans objet par message). */
+    private static final class Mailbox {
+        private SimEvent[] events = new SimEvent[64];
+        private double[] times = new double[64];
+        private int size;
+
+        void add(SimEvent event, double time) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            events[size] = event;
+            times[size] = time;
+            size++;
+        }
+
+        void drainTo(EventScheduler scheduler) {
+            for (int i = 0; i < size; i++) {
+                scheduler.scheduleAt(events[i], times[i]);
+                events[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Événement du moteur autonome : une action planifiée à une date simulée.
+ * <p>
+ * Une même instance peut être replanifiée après son exécution ou son annulation
+ * (ex : l'événement de découverte de bloc d'un nœud), ce qui évite d'allouer un objet par tirage.
+ */
+public abstract class SimEvent {
+
+    /** Date d'exécution (secondes simulées). */
+    double time;
+
+    /** Numéro de planification : départage les événements simultanés dans l'ordre FIFO. */
+    long seq;
+
+    /** Position dans le tas de {@link EventScheduler} (-1 si non planifié). */
+    int heapIndex = -1;
+
+    /** @return Vrai si l'événement est en attente d'exécution. */
+    public boolean isScheduled() {
+        return heapIndex >= 0;
+    }
+
+    /** @return La date d'exécution planifiée (secondes simulées). */
+    public double time() {
+        return time;
+    }
+
+    /** Action de l'événement, exécutée à sa date. */
+    public abstract void run();
+}
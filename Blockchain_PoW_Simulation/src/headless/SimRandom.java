@@ -0,0 +1,66 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Générateur pseudo-aléatoire rapide et reproductible (SplitMix64).
+ * <p>
+ * Un générateur par nœud, dérivé de la graine de la simulation et de l'index du nœud :
+ * les tirages d'un nœud ne dépendent pas de l'ordre dans lequel les autres tirent.
+ * L'état (un seul long) est exposé pour pouvoir sauvegarder puis reprendre une simulation.
+ */
+public class SimRandom implements RandomGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    /** @return Un générateur indépendant pour le flux {@code stream} (ex : l'index d'un nœud). */
+    public static SimRandom forStream(long seed, long stream) {
+        return new SimRandom(mix(seed ^ mix(stream + GOLDEN_GAMMA)));
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /** @return Un double uniforme dans [0, 1). */
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /** @return Un entier uniforme dans [0, bound). */
+    @Override
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 33) * bound >>> 31);
+    }
+
+    /** @return Un tirage uniforme dans [min, max]. */
+    public double uniform(double min, double max) {
+        return min + (max - min) * nextDouble();
+    }
+
+    /** @return Un tirage exponentiel de taux {@code rate} (moyenne 1 / rate). */
+    public double exponential(double rate) {
+        return -Math.log(1.0 - nextDouble()) / rate;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,638 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sauvegarde et reprise de l'état complet d'une {@link HeadlessSimulation}.
+ * <p>
+ * Format binaire compact : les hash, les transactions et les blocs sont écrits une seule fois
+ * puis désignés par leur numéro (un bloc partagé par tous les nœuds, ou un hash présent dans tous leurs caches,
+ * ne coûte qu'un entier par référence). Sont sauvegardés : la configuration, l'horloge et
+ * l'échéancier (messages en vol compris, avec leur rang d'exécution), l'arbre de blocs,
+ * l'état de chaque nœud (sommet, bloc en cours, caches, orphelins, mempool, connaissance des voisins,
+ * compteurs de minage) et l'état de son générateur aléatoire, le trafic et les indicateurs
+ * ({@link SimulationMetrics}). Une simulation reprise se déroule exactement comme
+ * l'originale, sauf si des réglages sont modifiés à la reprise.
+ * <p>
+ * Limites : l'arbre doit être entièrement en mémoire (sans {@link BlockStore}), et en mode
+ * PARALLEL la recherche en cours des workers n'est pas sauvegardée (le nœud repart d'un bloc neuf).
+ */
+public final class SimulationSnapshot {
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 6;
+
+    // Types d'événements en attente
+    private static final byte EVENT_DELIVERY = 0;
+    private static final byte EVENT_SOLVE = 1;
+    private static final byte EVENT_MINING_TICK = 2;
+    private static final byte EVENT_TRANSACTION = 3;
+
+    // Types de messages
+    private static final byte MSG_BLOCK = 0;
+    private static final byte MSG_INV = 1;
+    private static final byte MSG_GET_HEADERS = 2;
+    private static final byte MSG_HEADERS = 3;
+    private static final byte MSG_GET_BLOCKS = 4;
+    private static final byte MSG_BLOCKS = 5;
+    private static final byte MSG_TRANSACTION = 6;
+
+    private SimulationSnapshot() {
+    }
+
+
+    // ========================================================================
+    // [SECTION: Sauvegarde]
+    // ========================================================================
+
+    /** Écrit l'état complet de la simulation dans un fichier. */
+    public static void save(HeadlessSimulation simulation, Path file) throws IOException {
+        if (simulation.context.blockTree.store() != null) {
+            throw new IllegalStateException("Sauvegarde impossible avec un journal de blocs (config.blockStorePath)");
+        }
+        if (simulation.partitions() != null) {
+            throw new IllegalStateException("Sauvegarde impossible avec le moteur partitionné (partitions > 1)");
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            new Writer(simulation).write(out);
+        }
+    }
+
+    private static final class Writer {
+        final HeadlessSimulation simulation;
+        final Bytes body = new Bytes(1 << 20);
+        final DataOutputStream out = new DataOutputStream(body);
+        final HashMap<Hash256, Integer> hashIds = new HashMap<>();
+        final List<Hash256> hashes = new ArrayList<>();
+        final IdentityHashMap<Block, Integer> blockIds = new IdentityHashMap<>();
+        final List<Block> blocks = new ArrayList<>();
+        final IdentityHashMap<Transaction, Integer> transactionIds = new IdentityHashMap<>();
+        final List<Transaction> transactions = new ArrayList<>();
+        final Map<NodeLogic, Integer> nodeIds = new IdentityHashMap<>();
+        final Map<SimEvent, HeadlessNode> eventOwners = new IdentityHashMap<>();
+
+        Writer(HeadlessSimulation simulation) {
+            this.simulation = simulation;
+        }
+
+        /**
+         * Les références aux hash et aux transactions sont numérotées au fil de l'écriture du corps
+         * (un seul parcours des caches) ; leurs tables sont donc écrites après coup, devant le corps.
+         */
+        void write(OutputStream file) throws IOException {
+            List<HeadlessNode> nodes = simulation.nodes;
+            List<SimEvent> events = simulation.scheduler.pending();
+            for (HeadlessNode node : nodes) {
+                nodeIds.put(node.logic, node.index);
+                eventOwners.put(node.solveEvent, node);
+                eventOwners.put(node.miningTickEvent, node);
+                eventOwners.put(node.transactionEvent, node);
+            }
+
+            // 1. Recenser les blocs : l'arbre d'abord (par hauteur, parents avant enfants), puis les autres
+            List<Block> treeBlocks = new ArrayList<>(simulation.context.blockTree.blocksInMemory());
+            treeBlocks.sort(Comparator.comparingInt(b -> b.height));
+            for (Block b : treeBlocks) block(b);
+            int treeBlockCount = blocks.size();
+            for (HeadlessNode node : nodes) {
+                NodeLogic logic = node.logic;
+                block(logic.tip);
+                if (logic.blockInProgress != null) block(logic.blockInProgress);
+                for (Block b : logic.orphanPool.blocks()) block(b);
+            }
+            for (SimEvent event : events) {
+                if (event instanceof HeadlessNode.Delivery) {
+                    NetworkMessage message = ((HeadlessNode.Delivery) event).message;
+                    if (message instanceof Block) block((Block) message);
+                    if (message instanceof BlocksMessage) {
+                        for (Block b : ((BlocksMessage) message).blocks) block(b);
+                    }
+                }
+            }
+
+            // 2. Corps : table des blocs
+            out.writeInt(blocks.size());
+            out.writeInt(treeBlockCount);
+            for (Block b : blocks) {
+                out.writeInt(hash(b.hash));
+                out.writeInt(hash(b.previousHash));
+                out.writeInt(hash(b.merkleRoot));
+                out.writeInt(b.transactionList.size());
+                for (Transaction tx : b.transactionList) out.writeInt(transaction(tx));
+                out.writeUTF(b.transactions == null ? "" : b.transactions);
+                out.writeLong(b.timestamp);
+                out.writeInt(b.targetDifficulty);
+                out.writeInt(b.nonce);
+                out.writeBoolean(b.simulated);
+                out.writeInt(b.height);
+                out.writeDouble(b.chainWork);
+            }
+
+            // 3. Nœuds
+            out.writeInt(nodes.size());
+            for (HeadlessNode node : nodes) writeNode(node);
+
+            // 4. Événements en attente
+            out.writeInt(events.size());
+            for (SimEvent event : events) writeEvent(event);
+
+            // 5. Compteurs de trafic
+            Map<String, NetworkStats.Counter> counters = simulation.context.networkStats.byType();
+            out.writeInt(counters.size());
+            for (Map.Entry<String, NetworkStats.Counter> e : counters.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().messages.sum());
+                out.writeLong(e.getValue().bytes.sum());
+            }
+
+            // 6. Indicateurs
+            simulation.context.metrics.writeTo(out);
+
+            // 7. En-tête, configuration, horloge, tables des hash et des transactions, puis le corps
+            Bytes headBytes = new Bytes(1 << 16);
+            DataOutputStream head = new DataOutputStream(headBytes);
+            head.writeInt(MAGIC);
+            head.writeInt(VERSION);
+            writeConfig(simulation.config, head);
+            head.writeInt(Block.difficulty);
+            head.writeInt(Block.simulatedDifficulty);
+            head.writeLong(simulation.seed);
+            head.writeDouble(simulation.scheduler.now());
+            head.writeLong(simulation.scheduler.nextSeq());
+            head.writeLong(simulation.scheduler.eventsProcessed());
+            head.writeInt(hashes.size());
+            byte[] bytes = new byte[32];
+            for (Hash256 h : hashes) {
+                h.writeTo(bytes, 0);
+                head.write(bytes);
+            }
+            head.writeInt(transactions.size());
+            byte[] txBytes = new byte[Transaction.ENCODED_BYTES];
+            for (Transaction tx : transactions) {
+                head.writeInt(hashIds.get(tx.id));
+                tx.encode(txBytes, 0);
+                head.write(txBytes);
+            }
+            headBytes.writeTo(file);
+            body.writeTo(file);
+        }
+
+        void writeNode(HeadlessNode node) throws IOException {
+            NodeLogic logic = node.logic;
+            out.writeLong(node.random.getState());
+            out.writeDouble(logic.hashRate);
+            out.writeInt(blockIds.get(logic.tip));
+            out.writeInt(logic.blockInProgress == null ? -1 : blockIds.get(logic.blockInProgress));
+            out.writeInt(logic.currentNonce);
+            out.writeLong(logic.attempts);
+            out.writeLong(logic.blocksMined);
+
+            out.writeLong(logic.transactionSequence);
+
+            writeNodeList(node.peers);
+            writeHashes(logic.seenBlocks.keys());
+            writeHashes(logic.connectedBlocks.keys());
+            writeHashes(logic.requestedBlocks.entries().keySet());
+            for (double at : logic.requestedBlocks.entries().values()) out.writeDouble(at);
+            out.writeInt(logic.orphanPool.size());
+            for (Block b : logic.orphanPool.blocks()) out.writeInt(blockIds.get(b));
+            out.writeInt(logic.mempool.size());
+            for (Transaction tx : logic.mempool.transactions()) out.writeInt(transaction(tx));
+            writeHashes(logic.seenTransactions.keys());
+            writeNodeList(logic.pendingSync);
+            out.writeInt(logic.peerKnown.size());
+            for (Map.Entry<NodeLogic, SeenCache<Hash256>> e : logic.peerKnown.entrySet()) {
+                out.writeInt(nodeIds.get(e.getKey()));
+                writeHashes(e.getValue().keys());
+            }
+        }
+
+        void writeEvent(SimEvent event) throws IOException {
+            if (event instanceof HeadlessNode.Delivery) {
+                HeadlessNode.Delivery delivery = (HeadlessNode.Delivery) event;
+                out.writeByte(EVENT_DELIVERY);
+                out.writeInt(nodeIds.get(delivery.from));
+                out.writeInt(nodeIds.get(delivery.to));
+                writeMessage(delivery.message);
+            } else {
+                HeadlessNode owner = eventOwners.get(event);
+                if (owner == null) throw new IllegalStateException("Événement non sauvegardable : " + event);
+                out.writeByte(event == owner.solveEvent ? EVENT_SOLVE
+                        : event == owner.miningTickEvent ? EVENT_MINING_TICK
+                        : EVENT_TRANSACTION);
+                out.writeInt(owner.index);
+            }
+            out.writeDouble(event.time);
+            out.writeLong(event.seq);
+        }
+
+        void writeMessage(NetworkMessage message) throws IOException {
+            if (message instanceof Block) {
+                out.writeByte(MSG_BLOCK);
+                out.writeInt(blockIds.get(message));
+            } else if (message instanceof BlocksMessage) {
+                out.writeByte(MSG_BLOCKS);
+                List<Block> list = ((BlocksMessage) message).blocks;
+                out.writeInt(list.size());
+                for (Block b : list) out.writeInt(blockIds.get(b));
+            } else if (message instanceof Transaction) {
+                out.writeByte(MSG_TRANSACTION);
+                out.writeInt(transaction((Transaction) message));
+            } else {
+                byte type = message instanceof InvMessage ? MSG_INV
+                        : message instanceof GetHeadersMessage ? MSG_GET_HEADERS
+                        : message instanceof HeadersMessage ? MSG_HEADERS
+                        : message instanceof GetBlocksMessage ? MSG_GET_BLOCKS
+                        : -1;
+                if (type < 0) throw new IllegalStateException("Message non sauvegardable : " + message.getClass());
+                out.writeByte(type);
+                writeHashes(messageHashes(message));
+            }
+        }
+
+        void writeHashes(Collection<Hash256> list) throws IOException {
+            out.writeInt(list.size());
+            for (Hash256 h : list) out.writeInt(hash(h));
+        }
+
+        void writeNodeList(Collection<NodeLogic> list) throws IOException {
+            out.writeInt(list.size());
+            for (NodeLogic n : list) out.writeInt(nodeIds.get(n));
+        }
+
+        /** @return Le numéro du hash dans la table (attribué à sa première rencontre). */
+        int hash(Hash256 h) {
+            Integer id = hashIds.putIfAbsent(h, hashes.size());
+            if (id != null) return id;
+            hashes.add(h);
+            return hashes.size() - 1;
+        }
+
+        /** @return Le numéro de la transaction dans la table (attribué à sa première rencontre). */
+        int transaction(Transaction tx) {
+            Integer id = transactionIds.putIfAbsent(tx, transactions.size());
+            if (id != null) return id;
+            hash(tx.id);
+            transactions.add(tx);
+            return transactions.size() - 1;
+        }
+
+        void block(Block b) {
+            if (blockIds.putIfAbsent(b, blocks.size()) == null) blocks.add(b);
+        }
+    }
+
+    private static List<Hash256> messageHashes(NetworkMessage message) {
+        if (message instanceof InvMessage) return ((InvMessage) message).hashes;
+        if (message instanceof GetHeadersMessage) return ((GetHeadersMessage) message).locator;
+        if (message instanceof HeadersMessage) return ((HeadersMessage) message).hashes;
+        if (message instanceof GetBlocksMessage) return ((GetBlocksMessage) message).hashes;
+        return List.of();
+    }
+
+
+    // ========================================================================
+    // [SECTION: Reprise]
+    // ========================================================================
+
+    /** @return La configuration enregistrée dans une sauvegarde (à modifier avant {@link #resume}). */
+    public static SimulationConfig readConfig(Path file) throws IOException {
+        try (DataInputStream in = open(file)) {
+            return readConfigSection(in);
+        }
+    }
+
+    /**
+     * Reconstruit une simulation sauvegardée.
+     * @param config La configuration à utiliser : celle de la sauvegarde ({@link #readConfig}),
+     *               éventuellement modifiée pour rejouer la suite avec d'autres réglages.
+     */
+    public static HeadlessSimulation resume(Path file, SimulationConfig config) throws IOException {
+        try (DataInputStream in = open(file)) {
+            readConfigSection(in); // Remplacée par celle de l'appelant
+            return new Reader(in).read(config);
+        }
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        DataInputStream in = new DataInputStream(new BytesInput(Files.readAllBytes(file)));
+        if (in.readInt() != MAGIC) {
+            in.close();
+            throw new IOException(file + " n'est pas une sauvegarde de simulation");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            in.close();
+            throw new IOException(file + " : version de sauvegarde non supportée " + version);
+        }
+        return in;
+    }
+
+    private static final class Reader {
+        final DataInputStream in;
+        Hash256[] hashes;
+        Transaction[] transactions;
+        Block[] blocks;
+        HeadlessSimulation simulation;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        HeadlessSimulation read(SimulationConfig config) throws IOException {
+            // 1. Réglages globaux et horloge
+            Block.difficulty = in.readInt();
+            Block.simulatedDifficulty = in.readInt();
+            long seed = in.readLong();
+            simulation = new HeadlessSimulation(config, seed);
+            double now = in.readDouble();
+            long nextSeq = in.readLong();
+            long eventsProcessed = in.readLong();
+            simulation.scheduler.restoreClock(now, nextSeq, eventsProcessed);
+
+            // 2. Hash
+            hashes = new Hash256[in.readInt()];
+            byte[] bytes = new byte[32];
+            for (int i = 0; i < hashes.length; i++) {
+                in.readFully(bytes);
+                hashes[i] = Hash256.fromBytes(bytes);
+            }
+            transactions = new Transaction[in.readInt()];
+            byte[] txBytes = new byte[Transaction.ENCODED_BYTES];
+            for (int i = 0; i < transactions.length; i++) {
+                Hash256 id = hashes[in.readInt()];
+                in.readFully(txBytes);
+                transactions[i] = Transaction.decode(id, txBytes, 0);
+            }
+
+            // 3. Blocs : ceux de l'arbre y sont réinsérés (parents avant enfants)
+            blocks = new Block[in.readInt()];
+            int treeBlockCount = in.readInt();
+            BlockTree tree = simulation.context.blockTree;
+            for (int i = 0; i < blocks.length; i++) {
+                Hash256 hash = hashes[in.readInt()];
+                Hash256 previousHash = hashes[in.readInt()];
+                Hash256 merkleRoot = hashes[in.readInt()];
+                Transaction[] included = new Transaction[in.readInt()];
+                for (int j = 0; j < included.length; j++) included[j] = transactions[in.readInt()];
+                Block b = new Block(hash, previousHash, merkleRoot, in.readUTF(), Arrays.asList(included),
+                        in.readLong(), in.readInt(), in.readInt());
+                b.simulated = in.readBoolean();
+                b.height = in.readInt();
+                b.chainWork = in.readDouble();
+                if (i < treeBlockCount) {
+                    b = b.hash.equals(BlockTree.GENESIS_HASH) ? tree.genesis() : tree.add(b);
+                }
+                blocks[i] = b;
+            }
+
+            // 4. Nœuds (créés d'abord, pour résoudre les références entre voisins)
+            int nodeCount = in.readInt();
+            for (int i = 0; i < nodeCount; i++) {
+                simulation.nodes.add(new HeadlessNode(simulation, i, new SimRandom(0)));
+            }
+            for (HeadlessNode node : simulation.nodes) readNode(node, config);
+
+            // 5. Événements en attente, à leur rang d'origine
+            int eventCount = in.readInt();
+            for (int i = 0; i < eventCount; i++) {
+                byte type = in.readByte();
+                SimEvent event;
+                if (type == EVENT_DELIVERY) {
+                    HeadlessNode from = simulation.nodes.get(in.readInt());
+                    HeadlessNode to = simulation.nodes.get(in.readInt());
+                    event = new HeadlessNode.Delivery(readMessage(), from.logic, to.logic);
+                } else {
+                    HeadlessNode owner = simulation.nodes.get(in.readInt());
+                    event = type == EVENT_SOLVE ? owner.solveEvent
+                            : type == EVENT_MINING_TICK ? owner.miningTickEvent
+                            : owner.transactionEvent;
+                }
+                simulation.scheduler.restore(event, in.readDouble(), in.readLong());
+            }
+
+            // 6. Compteurs de trafic
+            int counterCount = in.readInt();
+            for (int i = 0; i < counterCount; i++) {
+                simulation.context.networkStats.add(in.readUTF(), in.readLong(), in.readLong());
+            }
+
+            // 7. Indicateurs
+            simulation.context.metrics.readFrom(in);
+            return simulation;
+        }
+
+        void readNode(HeadlessNode node, SimulationConfig config) throws IOException {
+            NodeLogic logic = node.logic;
+            node.random.setState(in.readLong());
+            logic.hashRate = in.readDouble();
+            logic.tip = blocks[in.readInt()];
+            int inProgress = in.readInt();
+            logic.blockInProgress = inProgress < 0 ? null : blocks[inProgress];
+            logic.currentNonce = in.readInt();
+            logic.attempts = in.readLong();
+            logic.blocksMined = in.readLong();
+            if (config.miningMode == MiningMode.PARALLEL) logic.blockInProgress = null; // Les workers repartent de zéro
+            logic.transactionSequence = in.readLong();
+
+            for (NodeLogic peer : readNodeList()) node.peers.add(peer);
+            for (Hash256 h : readHashes()) logic.seenBlocks.add(h);
+            for (Hash256 h : readHashes()) logic.connectedBlocks.add(h);
+            for (Hash256 h : readHashes()) logic.requestedBlocks.add(h, in.readDouble());
+            int orphanCount = in.readInt();
+            for (int i = 0; i < orphanCount; i++) logic.orphanPool.add(blocks[in.readInt()]);
+            int mempoolCount = in.readInt();
+            for (int i = 0; i < mempoolCount; i++) logic.mempool.add(transactions[in.readInt()]);
+            for (Hash256 h : readHashes()) logic.seenTransactions.add(h);
+            logic.pendingSync.addAll(readNodeList());
+            int knownCount = in.readInt();
+            for (int i = 0; i < knownCount; i++) {
+                NodeLogic peer = simulation.nodes.get(in.readInt()).logic;
+                SeenCache<Hash256> known = new SeenCache<>(config.peerKnownCacheSize);
+                for (Hash256 h : readHashes()) known.add(h);
+                logic.peerKnown.put(peer, known);
+            }
+        }
+
+        NetworkMessage readMessage() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case MSG_BLOCK: return blocks[in.readInt()];
+                case MSG_BLOCKS: {
+                    int count = in.readInt();
+                    List<Block> list = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) list.add(blocks[in.readInt()]);
+                    return new BlocksMessage(list);
+                }
+                case MSG_TRANSACTION: return transactions[in.readInt()];
+                case MSG_INV: return new InvMessage(readHashes());
+                case MSG_GET_HEADERS: return new GetHeadersMessage(readHashes());
+                case MSG_HEADERS: return new HeadersMessage(readHashes());
+                case MSG_GET_BLOCKS: return new GetBlocksMessage(readHashes());
+                default: throw new IOException("Type de message inconnu : " + type);
+            }
+        }
+
+        List<Hash256> readHashes() throws IOException {
+            int count = in.readInt();
+            List<Hash256> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) list.add(hashes[in.readInt()]);
+            return list;
+        }
+
+        List<NodeLogic> readNodeList() throws IOException {
+            int count = in.readInt();
+            List<NodeLogic> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) list.add(simulation.nodes.get(in.readInt()).logic);
+            return list;
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Tampons en mémoire]
+    // Les flux de java.io sont synchronisés octet par octet : des millions de références
+    // à écrire ou relire y passeraient l'essentiel du temps de sauvegarde.
+    // ========================================================================
+
+    /** Tampon d'écriture extensible, non synchronisé. */
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public void write(int b) {
+            if (count == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (count + len > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + len));
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+    }
+
+    /** Lecture d'un fichier entièrement chargé en mémoire, non synchronisée. */
+    private static final class BytesInput extends ByteArrayInputStream {
+        BytesInput(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int read() {
+            return pos < count ? buf[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= count) return -1;
+            int n = Math.min(len, count - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Configuration (champs publics de SimulationConfig, par nom)]
+    // ========================================================================
+
+    /**
+     * Écrit chaque réglage sous la forme (nom, valeur) : un réglage ajouté plus tard
+     * prend sa valeur par défaut à la reprise d'une sauvegarde plus ancienne.
+     */
+    private static void writeConfig(SimulationConfig config, DataOutputStream out) throws IOException {
+        List<Field> fields = configFields();
+        out.writeInt(fields.size());
+        try {
+            for (Field f : fields) {
+                out.writeUTF(f.getName());
+                Object value = f.get(config);
+                Class<?> type = f.getType();
+                if (type == int.class) out.writeInt((Integer) value);
+                else if (type == long.class) out.writeLong((Long) value);
+                else if (type == double.class) out.writeDouble((Double) value);
+                else if (type == boolean.class) out.writeBoolean((Boolean) value);
+                else if (type == String.class || type.isEnum()) {
+                    out.writeBoolean(value != null);
+                    if (value != null) out.writeUTF(type.isEnum() ? ((Enum<?>) value).name() : (String) value);
+                } else if (type == Set.class) {
+                    Set<?> set = (Set<?>) value;
+                    out.writeInt(set.size());
+                    for (Object o : set) out.writeInt((Integer) o);
+                } else {
+                    throw new IllegalStateException("Réglage non sauvegardable : " + f);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static SimulationConfig readConfigSection(DataInputStream in) throws IOException {
+        SimulationConfig config = new SimulationConfig();
+        HashMap<String, Field> fields = new HashMap<>();
+        for (Field f : configFields()) fields.put(f.getName(), f);
+
+        int count = in.readInt();
+        try {
+            for (int i = 0; i < count; i++) {
+                Field f = fields.get(in.readUTF());
+                if (f == null) throw new IOException("Réglage inconnu dans la sauvegarde");
+                Class<?> type = f.getType();
+                if (type == int.class) f.setInt(config, in.readInt());
+                else if (type == long.class) f.setLong(config, in.readLong());
+                else if (type == double.class) f.setDouble(config, in.readDouble());
+                else if (type == boolean.class) f.setBoolean(config, in.readBoolean());
+                else if (type == String.class || type.isEnum()) {
+                    String value = in.readBoolean() ? in.readUTF() : null;
+                    f.set(config, value == null || !type.isEnum() ? value : Enum.valueOf((Class) type, value));
+                } else {
+                    int size = in.readInt();
+                    Set<Integer> set = new HashSet<>();
+                    for (int j = 0; j < size; j++) set.add(in.readInt());
+                    f.set(config, set);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return config;
+    }
+
+    private static List<Field> configFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Field f : SimulationConfig.class.getFields()) {
+            if (!Modifier.isStatic(f.getModifiers())) fields.add(f);
+        }
+        fields.sort(Comparator.comparing(Field::getName));
+        return fields;
+    }
+}
@@ -1,5 +1,5 @@
-import java.security.MessageDigest;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Représente un Bloc dans la chaîne.
@@ -7,38 +7,60 @@ import java.util.Date;
  * Cette classe est le cœur "passif" de la simulation. Elle définit la structure de données
  * immuable (une fois minée) et contient les méthodes cryptographiques (SHA-256)
  * nécessaires pour garantir l'intégrité et la sécurité de la blockchain.
+ * <p>
+ * Seul l'en-tête de taille fixe ({@link #HEADER_SIZE} octets) est haché à chaque tentative :
+ * le contenu (texte libre et transactions) n'y figure que par sa racine de Merkle,
+ * calculée une fois à la création du bloc.
  */
-public class Block {
+public class Block implements NetworkMessage {
 
     // --- 1. Variables Statiques (Configuration du consensus) ---
 
     /**
-     * Niveau de difficulté du Proof-of-Work.
-     * Définit le nombre de zéros requis au début du hash.
+     * Niveau de difficulté du Proof-of-Work exigé par le réseau.
+     * Définit le nombre de zéros requis au début du hash des blocs créés ({@link #targetDifficulty}).
      * Plus ce chiffre est élevé, plus la probabilité de trouver un hash valide est faible.
      */
     public static int difficulty = 3; 
 
     /**
-     * La chaîne cible générée dynamiquement (ex: "000").
-     * Le hash du bloc doit commencer par cette chaîne pour être considéré comme valide.
+     * Difficulté réduite des blocs "simulés" (mode de minage statistique).
+     * Leur hash reste réel et vérifiable, mais ne coûte que quelques dizaines d'essais.
+     */
+    public static int simulatedDifficulty = 1;
+
+    /**
+     * Taille de l'en-tête haché : hash précédent (32), racine de Merkle (32),
+     * horodatage (8), difficulté exigée (4), nonce (4).
      */
-    public static String difficultyTarget = new String(new char[difficulty]).replace('\0', '0');
+    public static final int HEADER_SIZE = 80;
+
+    /** Position du nonce dans l'en-tête (4 derniers octets). */
+    static final int NONCE_OFFSET = 76;
 
  
     // --- 2. Variables d'Instance (Les données du bloc) ---
 
-    /** L'empreinte numérique unique du bloc (SHA-256). */
-    public String hash;
+    /** L'empreinte numérique unique du bloc (SHA-256, 32 octets). */
+    public Hash256 hash;
 
     /** * Le hash du bloc précédent. 
      * C'est ce lien qui crée la "chaîne" et empêche toute modification de l'historique.
      */
-    public String previousHash;
+    public Hash256 previousHash;
 
-    /** Les données utiles stockées dans le bloc (ex: "Alice envoie 10 à Bob"). */
+    /**
+     * Texte libre du bloc (ex: "Transactions du bloc 12"), l'équivalent de la transaction
+     * "coinbase" : première feuille de l'arbre de Merkle.
+     */
     public String transactions;
 
+    /** Les transactions incluses, dans l'ordre du bloc (liste non modifiable). */
+    public List<Transaction> transactionList;
+
+    /** Racine de Merkle du texte et des transactions (voir {@link MerkleTree}). */
+    public Hash256 merkleRoot;
+
     /** L'horodatage de la création du bloc (en millisecondes depuis 1970). */
     public long timestamp;
 
@@ -47,6 +69,37 @@ public class Block {
      */
     public int nonce;
 
+    /**
+     * Vrai si le gagnant a été tiré au sort (mode statistique) : le bloc n'est alors
+     * miné qu'à {@link #simulatedDifficulty}.
+     */
+    public boolean simulated;
+
+    /**
+     * Difficulté du réseau à la création du bloc, inscrite dans l'en-tête : elle fixe les zéros
+     * exigés (sauf pour un bloc simulé) et le travail que le bloc représente ({@link BlockTree#work}).
+     */
+    public int targetDifficulty;
+
+
+    // --- Position dans l'arbre de blocs (renseignée par BlockTree.add) ---
+
+    /** Le bloc parent (null pour le Genesis ou tant que le bloc n'est pas dans l'arbre). */
+    public Block parent;
+
+    /** La hauteur du bloc (0 pour le Genesis). */
+    public int height;
+
+    /**
+     * Le travail cumulé de la branche, du Genesis jusqu'à ce bloc inclus (sert au choix de fork).
+     * En {@code double} : 16^difficulté dépasse un {@code long} dès la difficulté 16, et la somme
+     * de puissances de deux reste exacte tant que la branche compte moins de 2^53 blocs.
+     */
+    public double chainWork;
+
+    /** Position du bloc dans le journal {@link BlockStore} (-1 si l'arbre n'a pas de journal). */
+    public long storeOffset = -1;
+
  
     // --- 3. Le Constructeur ---
 
@@ -55,48 +108,101 @@ public class Block {
      * * @param transactions Les données à inscrire dans le registre.
      * @param previousHash L'empreinte du dernier bloc de la chaîne actuelle.
      */
-    public Block(String transactions, String previousHash) {
+    public Block(String transactions, Hash256 previousHash) {
+        this(transactions, previousHash, new Date().getTime());
+    }
+
+    /**
+     * Crée un nouveau bloc avec un horodatage imposé (moteur autonome reproductible).
+     * * @param transactions Les données à inscrire dans le registre.
+     * @param previousHash L'empreinte du dernier bloc de la chaîne actuelle.
+     * @param timestamp L'horodatage du bloc (en millisecondes depuis 1970).
+     */
+    public Block(String transactions, Hash256 previousHash, long timestamp) {
+        this(transactions, previousHash, timestamp, List.of());
+    }
+
+    /**
+     * Crée un nouveau bloc contenant des transactions (tirées de la mempool du mineur).
+     * * @param transactions Le texte libre du bloc.
+     * @param previousHash L'empreinte du dernier bloc de la chaîne actuelle.
+     * @param timestamp L'horodatage du bloc (en millisecondes depuis 1970).
+     * @param transactionList Les transactions à inclure, dans l'ordre.
+     */
+    public Block(String transactions, Hash256 previousHash, long timestamp, List<Transaction> transactionList) {
         this.transactions = transactions;
+        this.transactionList = List.copyOf(transactionList);
+        this.merkleRoot = MerkleTree.root(transactions, this.transactionList); // Une seule fois par bloc
         this.previousHash = previousHash;
-        this.timestamp = new Date().getTime();
+        this.timestamp = timestamp;
+        this.targetDifficulty = difficulty;
         this.nonce = 0; // On initialise le compteur de recherche à 0
         this.hash = calculateHash(); // Calcul initial (probablement invalide avant minage)
     }
 
+    /**
+     * Reconstruit un bloc déjà miné (relecture depuis un journal ou une sauvegarde),
+     * sans recalculer son hash ni sa racine de Merkle.
+     */
+    Block(Hash256 hash, Hash256 previousHash, Hash256 merkleRoot, String transactions,
+          List<Transaction> transactionList, long timestamp, int targetDifficulty, int nonce) {
+        this.hash = hash;
+        this.previousHash = previousHash;
+        this.merkleRoot = merkleRoot;
+        this.transactions = transactions;
+        this.transactionList = List.copyOf(transactionList);
+        this.timestamp = timestamp;
+        this.targetDifficulty = targetDifficulty;
+        this.nonce = nonce;
+    }
+
  
     // --- 4. La Fonction de Hachage (Moteur Cryptographique) ---
 
     /**
      * Calcule l'empreinte numérique (Hash) du bloc en utilisant l'algorithme SHA-256.
      * <p>
-     * Cette fonction concatène toutes les propriétés du bloc (y compris le nonce)
-     * et retourne une chaîne hexadécimale unique.
-     * * @return La signature SHA-256 du bloc sous forme de chaîne de caractères.
-     */
-    public String calculateHash() {
-        try {
-            // 1. Concaténation de toutes les données du bloc
-            String dataToHash = previousHash +
-                                Long.toString(timestamp) +
-                                Integer.toString(nonce) +
-                                transactions;
-            
-            // 2. Application de l'algorithme SHA-256
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(dataToHash.getBytes("UTF-8"));
-            
-            // 3. Conversion des octets en chaîne hexadécimale lisible
-            StringBuffer hexString = new StringBuffer();
-            for (int i = 0; i < hashBytes.length; i++) {
-                String hex = Integer.toHexString(0xff & hashBytes[i]);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-            
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+     * Cette fonction hache l'en-tête de taille fixe (hash précédent, racine de Merkle,
+     * horodatage, difficulté, nonce) et retourne une empreinte unique.
+     * * @return La signature SHA-256 du bloc.
+     */
+    public Hash256 calculateHash() {
+        return Hash256.fromBytes(digestWithNonce(nonce));
+    }
+
+    /**
+     * Vérifie l'intégrité du bloc reçu : le hash annoncé doit correspondre à l'en-tête
+     * (recalcul SHA-256) ET respecter la difficulté, et la racine de Merkle au contenu.
+     * <p>
+     * La comparaison se fait directement sur les octets bruts, sans construire
+     * d'objet pour le hash recalculé.
+     * @return {@code true} si le bloc est authentique et suffisamment "travaillé".
+     */
+    public boolean isValid() {
+        byte[] digestBytes = digestWithNonce(nonce);
+        return hash != null && hash.matches(digestBytes) && hash.meetsDifficulty(requiredDifficulty())
+                && merkleRoot.equals(MerkleTree.root(transactions, transactionList));
+    }
+
+
+    /** Taille du contenu (texte et transactions), calculée au premier appel. */
+    private int contentBytes = -1;
+
+    /** @return La taille du bloc sur le réseau : en-tête binaire, hash, texte libre et transactions. */
+    @Override
+    public int sizeBytes() {
+        if (contentBytes < 0) {
+            // Texte (ASCII le plus souvent), nombre de transactions, puis chaque transaction
+            int size = (transactions == null ? 0 : transactions.length()) + 4;
+            for (Transaction tx : transactionList) size += tx.encodedSize();
+            contentBytes = size;
         }
+        return HEADER_BYTES + HEADER_SIZE + HASH_BYTES + contentBytes;
+    }
+
+    /** @return Le nombre de zéros exigé pour ce bloc (réduit pour un bloc simulé). */
+    public int requiredDifficulty() {
+        return simulated ? simulatedDifficulty : targetDifficulty;
     }
 
 
@@ -107,22 +213,153 @@ public class Block {
      * <p>
      * Contrairement à une boucle `while` classique, cette fonction est conçue pour
      * être appelée répétitivement par un agent (Statechart) sans bloquer la simulation.
+     * Une tentative ratée n'alloue aucun objet : seul le nonce est mis à jour, le champ
+     * {@link #hash} n'est réécrit que pour le hash gagnant.
      * * @param nonceToTry Le nombre entier à tester pour cette tentative.
      * @return Le hash validé si la difficulté est atteinte, ou {@code null} si la tentative a échoué.
      */
-    public String mineBlock(int nonceToTry) { 
+    public Hash256 mineBlock(int nonceToTry) { 
 	    
-	    // 1. Mettre à jour le nonce et calculer le hash
+	    // 1. Mettre à jour le nonce et calculer le hash (octets bruts)
 	    this.nonce = nonceToTry;
-	    this.hash = calculateHash();
+	    byte[] digestBytes = digestWithNonce(nonceToTry);
 	    
 	    // 2. Vérifier si ce hash est "gagnant" (commence par le nombre de zéros requis)
-	    if (hash.substring(0, difficulty).equals(difficultyTarget)) {
+	    if (meetsDifficulty(digestBytes, requiredDifficulty())) {
 	        // OUI ! C'est un succès. On retourne le hash gagnant.
+	        this.hash = Hash256.fromBytes(digestBytes);
 	        return hash;
 	    } else {
 	        // NON. C'est un échec. On retourne 'null'.
 	        return null;
 	    }
 	}
-}
\ No newline at end of file
+
+
+    /**
+     * Effectue un LOT de tentatives consécutives, à partir de {@code fromNonce}.
+     * <p>
+     * S'arrête dès qu'un hash valide est trouvé, après {@code maxAttempts} essais,
+     * ou lorsque l'horloge ({@link System#nanoTime()}) dépasse {@code deadlineNanos}.
+     * Comme pour {@link #mineBlock(int)}, {@link #nonce} contient ensuite le dernier nonce essayé.
+     * @param fromNonce Premier nonce à tester.
+     * @param maxAttempts Nombre maximal de nonces à tester.
+     * @param deadlineNanos Échéance en temps réel ({@link Long#MAX_VALUE} pour aucune).
+     * @return {@code true} si le bloc a été miné ({@link #hash} est alors renseigné).
+     */
+    public boolean mineRange(int fromNonce, int maxAttempts, long deadlineNanos) {
+        long lastNonce = Math.min((long) fromNonce + maxAttempts - 1, Integer.MAX_VALUE);
+        long n = fromNonce;
+        while (n <= lastNonce) {
+            // Tranches alignées sur 256 nonces : l'horloge n'est consultée qu'entre deux tranches
+            long chunkEnd = Math.min(lastNonce, n | 0xFF);
+            int found = searchNonce((int) n, (int) (chunkEnd - n + 1));
+            if (found >= 0) {
+                this.nonce = found;
+                this.hash = Hash256.fromBytes(digestWithNonce(found));
+                return true;
+            }
+            this.nonce = (int) chunkEnd;
+            if ((chunkEnd & 0xFF) == 0xFF && System.nanoTime() >= deadlineNanos) break;
+            n = chunkEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Cherche le plus petit nonce gagnant d'une plage SANS modifier le bloc, avec le noyau
+     * de minage courant ({@link MiningKernel#current()} : plusieurs nonces par instruction
+     * si le noyau vectoriel est disponible).
+     * <p>
+     * Mêmes conditions d'usage multi-thread que {@link #tryNonce(int)}.
+     * @param fromNonce Premier nonce à tester.
+     * @param count Nombre de nonces ({@code fromNonce + count - 1 <= Integer.MAX_VALUE}).
+     * @return Le nonce gagnant, ou -1 s'il n'y en a aucun dans la plage.
+     */
+    public int searchNonce(int fromNonce, int count) {
+        encodeHeader();
+        MiningKernel.Midstate prepared = midstate;
+        if (prepared == null || prepared.header != header) {
+            // Plusieurs workers peuvent le calculer en même temps : objet immuable, résultat identique
+            prepared = MiningKernel.prepare(header);
+            midstate = prepared;
+        }
+        return MiningKernel.current().search(prepared, fromNonce, count, requiredDifficulty());
+    }
+
+    /**
+     * Teste un nonce SANS modifier le bloc (ni {@link #nonce}, ni {@link #hash}).
+     * <p>
+     * Utilisable simultanément depuis plusieurs threads une fois l'en-tête encodé
+     * (premier appel effectué sur le thread qui a construit le bloc).
+     * @param nonceToTry Le nombre entier à tester.
+     * @return {@code true} si ce nonce donne un hash respectant la difficulté.
+     */
+    public boolean tryNonce(int nonceToTry) {
+        return meetsDifficulty(digestWithNonce(nonceToTry), requiredDifficulty());
+    }
+
+
+    // --- 6. Moteur de Hachage Sans Allocation ---
+
+    /** L'en-tête encodé (nonce compris), une fois par bloc. */
+    private byte[] header;
+
+    // Valeurs ayant servi à encoder l'en-tête (les champs sont publics et peuvent être modifiés).
+    private Hash256 encodedPreviousHash;
+    private Hash256 encodedMerkleRoot;
+    private long encodedTimestamp;
+    private int encodedDifficulty;
+
+    /** État SHA-256 commun à tous les nonces de l'en-tête encodé (noyaux de minage). */
+    private MiningKernel.Midstate midstate;
+
+    /**
+     * Calcule le SHA-256 de l'en-tête de {@link #HEADER_SIZE} octets, avec le nonce donné
+     * (espace de travail par thread de {@link ScalarMiningKernel} : l'en-tête n'y est recopié
+     * qu'une fois par bloc, seul le nonce est réécrit).
+     * <p>
+     * Le tableau retourné appartient à l'espace de travail du thread courant :
+     * il est écrasé au prochain appel et ne doit pas être conservé.
+     */
+    private byte[] digestWithNonce(int nonceToTry) {
+        encodeHeader();
+        return ScalarMiningKernel.digest(header, nonceToTry);
+    }
+
+    /** (Ré)encode l'en-tête si les données du bloc ont changé. */
+    private void encodeHeader() {
+        int difficultyField = requiredDifficulty();
+        if (header != null && previousHash == encodedPreviousHash && merkleRoot == encodedMerkleRoot
+                && timestamp == encodedTimestamp && difficultyField == encodedDifficulty) {
+            return;
+        }
+        byte[] encoded = new byte[HEADER_SIZE];
+        (previousHash == null ? Hash256.ZERO : previousHash).writeTo(encoded, 0);
+        (merkleRoot == null ? Hash256.ZERO : merkleRoot).writeTo(encoded, 32);
+        for (int i = 0; i < 8; i++) {
+            encoded[64 + i] = (byte) (timestamp >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            encoded[72 + i] = (byte) (difficultyField >>> (24 - 8 * i));
+        }
+        header = encoded;
+        encodedPreviousHash = previousHash;
+        encodedMerkleRoot = merkleRoot;
+        encodedTimestamp = timestamp;
+        encodedDifficulty = difficultyField;
+    }
+
+    /**
+     * Teste la difficulté directement sur les octets du hash :
+     * chaque zéro hexadécimal exigé correspond à un demi-octet (nibble) nul.
+     */
+    static boolean meetsDifficulty(byte[] digestBytes, int zeros) {
+        if (zeros > digestBytes.length * 2) return false;
+        int fullBytes = zeros >> 1;
+        for (int i = 0; i < fullBytes; i++) {
+            if (digestBytes[i] != 0) return false;
+        }
+        return (zeros & 1) == 0 || (digestBytes[fullBytes] & 0xF0) == 0;
+    }
+}
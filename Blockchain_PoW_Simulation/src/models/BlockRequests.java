@@ -0,0 +1,61 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Blocs annoncés (INVENTORY) dont le contenu a été demandé à un voisin, avec la date de la demande.
+ * <p>
+ * Tant qu'une demande est en cours, les annonces des autres voisins pour le même bloc sont
+ * ignorées. Une demande expire après {@code timeout} secondes simulées (bloc jamais livré :
+ * le voisin ne l'a plus, ou la réponse s'est perdue) ou est retirée si le bloc livré est invalide :
+ * l'annonce suivante, d'où qu'elle vienne, relance alors la demande.
+ * Bornée comme {@link SeenCache} : au-delà de la capacité, la demande la plus ancienne est oubliée.
+ */
+public class BlockRequests {
+
+    private final double timeout;
+
+    /** Date de la demande, par hash, de la plus ancienne à la plus récente. */
+    private final LinkedHashMap<Hash256, Double> requestedAt;
+
+    /**
+     * @param capacity Nombre maximal de demandes mémorisées.
+     * @param timeout Délai au-delà duquel une demande sans réponse peut être renouvelée (secondes simulées).
+     */
+    public BlockRequests(int capacity, double timeout) {
+        this.timeout = timeout;
+        this.requestedAt = new LinkedHashMap<Hash256, Double>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Hash256, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** @return {@code true} si ce bloc a été demandé il y a moins de {@code timeout} secondes. */
+    public boolean isPending(Hash256 hash, double now) {
+        Double at = requestedAt.get(hash);
+        return at != null && now - at < timeout;
+    }
+
+    /** Note la demande de ce bloc à la date {@code now} (une demande expirée est remplacée). */
+    public void add(Hash256 hash, double now) {
+        requestedAt.remove(hash); // Réinsérée en fin d'ordre d'éviction
+        requestedAt.put(hash, now);
+    }
+
+    /** Oublie la demande de ce bloc (contenu reçu mais invalide). */
+    public void remove(Hash256 hash) {
+        requestedAt.remove(hash);
+    }
+
+    /** @return Les demandes par hash, de la plus ancienne à la plus récente (vue en lecture seule). */
+    public Map<Hash256, Double> entries() {
+        return Collections.unmodifiableMap(requestedAt);
+    }
+
+    /** @return Le nombre de demandes mémorisées. */
+    public int size() {
+        return requestedAt.size();
+    }
+}
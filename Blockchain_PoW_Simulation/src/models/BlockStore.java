@@ -0,0 +1,344 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Journal de blocs en ajout seul, projeté en mémoire (memory-mapped file).
+ * <p>
+ * Chaque bloc inséré dans {@link BlockTree} y est écrit une seule fois ; l'arbre ne garde
+ * en mémoire que les derniers blocs et relit les plus anciens à la demande, par hash ou par
+ * hauteur. Le fichier reste lisible après la simulation ({@link #main(String[])}) pour
+ * inspecter le registre hors ligne.
+ * <p>
+ * Format : un en-tête (magique, version, fin des données), puis des enregistrements
+ * {@code [longueur][précédent 32][hash 32][Merkle 32][horodatage 8][nonce 4][hauteur 4][travail 8][simulé 1]
+ * [difficulté 4][texte][nombre de transactions 4][transactions : identifiant 32 + champs encodés]}.
+ * Un enregistrement ne chevauche jamais deux segments projetés (une longueur 0 saute au segment suivant).
+ * Non thread-safe, comme l'arbre qui l'utilise.
+ */
+public class BlockStore implements Closeable {
+
+    private static final int MAGIC = 0x424C4B53; // "BLKS"
+    private static final int VERSION = 4;
+    private static final int FILE_HEADER_BYTES = 16;
+    private static final int RECORD_FIXED_BYTES = 32 + 32 + 32 + 8 + 4 + 4 + 8 + 1 + 4 + 4 + 4;
+    private static final int TRANSACTION_BYTES = 32 + Transaction.ENCODED_BYTES;
+
+    /** Taille d'un segment projeté : le fichier grandit par segments. */
+    static final int SEGMENT_BYTES = 64 << 20;
+
+    private final FileChannel channel;
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+
+    /** Position de fin des données (prochain enregistrement). */
+    private long end;
+    private int count;
+
+    /** Index hash -> position (adressage ouvert sur le hashCode ; le hash complet est vérifié à la lecture). */
+    private int[] indexCodes = new int[1 << 12];
+    private long[] indexOffsets = new long[1 << 12];
+    private int indexMask = (1 << 12) - 1;
+
+    private BlockStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Crée un journal vide (un fichier existant est écrasé). */
+    public static BlockStore create(Path path) throws IOException {
+        return open(path, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Ouvre (ou crée) un journal. Un journal existant est relu pour reconstruire l'index,
+     * et les nouveaux blocs sont ajoutés à sa suite.
+     */
+    public static BlockStore open(Path path) throws IOException {
+        return open(path, FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    private static BlockStore open(Path path, FileChannel channel) throws IOException {
+        BlockStore store = new BlockStore(channel);
+        MappedByteBuffer first = store.segment(0);
+        if (first.getInt(0) == MAGIC) {
+            if (first.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException(path + " : version de journal non supportée " + first.getInt(4));
+            }
+            store.end = first.getLong(8);
+            store.scan(offset -> store.index(store.readHash(offset), offset));
+        } else {
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+            store.end = FILE_HEADER_BYTES;
+            first.putLong(8, store.end);
+        }
+        return store;
+    }
+
+    /** @return Le nombre de blocs écrits dans le journal. */
+    public int size() {
+        return count;
+    }
+
+    /** @return La taille utile du journal, en octets. */
+    public long sizeBytes() {
+        return end;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Écriture]
+    // ========================================================================
+
+    /**
+     * Ajoute un bloc (placé dans l'arbre : hauteur et travail renseignés) à la fin du journal.
+     * @return La position de l'enregistrement, à conserver pour le relire.
+     */
+    public long append(Block block) {
+        byte[] transactions = block.transactions == null
+                ? new byte[0] : block.transactions.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_FIXED_BYTES + transactions.length + block.transactionList.size() * TRANSACTION_BYTES;
+        if (4 + length > SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Bloc trop volumineux pour le journal : " + length + " octets");
+        }
+
+        // 1. Un enregistrement ne chevauche pas deux segments : sinon, marque de fin et segment suivant
+        int pos = (int) (end % SEGMENT_BYTES);
+        if (pos + 4 + length > SEGMENT_BYTES) {
+            if (pos + 4 <= SEGMENT_BYTES) segment(end).putInt(pos, 0);
+            end += SEGMENT_BYTES - pos;
+            pos = 0;
+        }
+        long offset = end;
+        MappedByteBuffer buffer = segment(offset);
+
+        // 2. Enregistrement
+        byte[] hashBytes = new byte[32];
+        buffer.putInt(pos, length);
+        pos += 4;
+        (block.previousHash == null ? Hash256.ZERO : block.previousHash).writeTo(hashBytes, 0);
+        buffer.put(pos, hashBytes);
+        block.hash.writeTo(hashBytes, 0);
+        buffer.put(pos + 32, hashBytes);
+        block.merkleRoot.writeTo(hashBytes, 0);
+        buffer.put(pos + 64, hashBytes);
+        pos += 96;
+        buffer.putLong(pos, block.timestamp);
+        buffer.putInt(pos + 8, block.nonce);
+        buffer.putInt(pos + 12, block.height);
+        buffer.putDouble(pos + 16, block.chainWork);
+        buffer.put(pos + 24, (byte) (block.simulated ? 1 : 0));
+        buffer.putInt(pos + 25, block.targetDifficulty);
+        buffer.putInt(pos + 29, transactions.length);
+        buffer.put(pos + 33, transactions);
+        pos += 33 + transactions.length;
+        buffer.putInt(pos, block.transactionList.size());
+        pos += 4;
+        byte[] txBytes = new byte[TRANSACTION_BYTES];
+        for (Transaction tx : block.transactionList) {
+            tx.id.writeTo(txBytes, 0);
+            tx.encode(txBytes, 32);
+            buffer.put(pos, txBytes);
+            pos += TRANSACTION_BYTES;
+        }
+
+        // 3. Fin des données (en-tête) et index
+        end = offset + 4 + length;
+        segments.get(0).putLong(8, end);
+        index(block.hash, offset);
+        return offset;
+    }
+
+    /** Force l'écriture sur disque des pages modifiées. */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        segments.clear();
+        channel.close();
+    }
+
+
+    // ========================================================================
+    // [SECTION: Lecture]
+    // ========================================================================
+
+    /**
+     * Relit un bloc. L'instance est neuve : son parent n'est pas renseigné
+     * (voir {@link BlockTree#parentOf(Block)}).
+     */
+    public Block read(long offset) {
+        MappedByteBuffer buffer = segment(offset);
+        int pos = (int) (offset % SEGMENT_BYTES) + 4;
+        byte[] hashBytes = new byte[32];
+
+        buffer.get(pos, hashBytes);
+        Hash256 previousHash = Hash256.fromBytes(hashBytes);
+        buffer.get(pos + 32, hashBytes);
+        Hash256 hash = Hash256.fromBytes(hashBytes);
+        buffer.get(pos + 64, hashBytes);
+        Hash256 merkleRoot = Hash256.fromBytes(hashBytes);
+        pos += 96;
+        long timestamp = buffer.getLong(pos);
+        byte[] transactions = new byte[buffer.getInt(pos + 29)];
+        buffer.get(pos + 33, transactions);
+
+        // Transactions incluses
+        int txPos = pos + 33 + transactions.length;
+        Transaction[] transactionList = new Transaction[buffer.getInt(txPos)];
+        byte[] txBytes = new byte[TRANSACTION_BYTES];
+        txPos += 4;
+        for (int i = 0; i < transactionList.length; i++, txPos += TRANSACTION_BYTES) {
+            buffer.get(txPos, txBytes);
+            transactionList[i] = Transaction.decode(Hash256.fromBytes(txBytes), txBytes, 32);
+        }
+
+        Block block = new Block(hash, previousHash, merkleRoot, new String(transactions, StandardCharsets.UTF_8),
+                Arrays.asList(transactionList), timestamp, buffer.getInt(pos + 25), buffer.getInt(pos + 8));
+        block.height = buffer.getInt(pos + 12);
+        block.chainWork = buffer.getDouble(pos + 16);
+        block.simulated = buffer.get(pos + 24) != 0;
+        block.storeOffset = offset;
+        return block;
+    }
+
+    /** @return Le bloc de hash donné, relu depuis le journal, ou {@code null} s'il n'y a jamais été écrit. */
+    public Block find(Hash256 hash) {
+        int code = hash.hashCode();
+        for (int slot = mix(code) & indexMask; indexOffsets[slot] != 0; slot = (slot + 1) & indexMask) {
+            if (indexCodes[slot] == code && readHash(indexOffsets[slot]).equals(hash)) {
+                return read(indexOffsets[slot]);
+            }
+        }
+        return null;
+    }
+
+    /** Parcourt les positions de tous les enregistrements, dans l'ordre d'écriture. */
+    public void scan(Consumer<Long> action) {
+        long offset = FILE_HEADER_BYTES;
+        while (offset < end) {
+            int pos = (int) (offset % SEGMENT_BYTES);
+            int length = pos + 4 <= SEGMENT_BYTES ? segment(offset).getInt(pos) : 0;
+            if (length == 0) {
+                offset += SEGMENT_BYTES - pos; // Fin de segment
+                continue;
+            }
+            action.accept(offset);
+            offset += 4 + length;
+        }
+    }
+
+    private Hash256 readHash(long offset) {
+        byte[] hashBytes = new byte[32];
+        segment(offset).get((int) (offset % SEGMENT_BYTES) + 4 + 32, hashBytes);
+        return Hash256.fromBytes(hashBytes);
+    }
+
+
+    // ========================================================================
+    // [SECTION: Index et segments]
+    // ========================================================================
+
+    private void index(Hash256 hash, long offset) {
+        if (++count * 2 > indexOffsets.length) growIndex();
+        int code = hash.hashCode();
+        int slot = mix(code) & indexMask;
+        while (indexOffsets[slot] != 0) slot = (slot + 1) & indexMask;
+        indexCodes[slot] = code;
+        indexOffsets[slot] = offset;
+    }
+
+    private void growIndex() {
+        int[] oldCodes = indexCodes;
+        long[] oldOffsets = indexOffsets;
+        indexCodes = new int[oldCodes.length * 2];
+        indexOffsets = new long[oldOffsets.length * 2];
+        indexMask = indexCodes.length - 1;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] == 0) continue;
+            int slot = mix(oldCodes[i]) & indexMask;
+            while (indexOffsets[slot] != 0) slot = (slot + 1) & indexMask;
+            indexCodes[slot] = oldCodes[i];
+            indexOffsets[slot] = oldOffsets[i];
+        }
+    }
+
+    private static int mix(int code) {
+        return code ^ (code >>> 16);
+    }
+
+    /** @return Le segment projeté contenant la position donnée (projeté à la première utilisation). */
+    private MappedByteBuffer segment(long offset) {
+        int i = (int) (offset / SEGMENT_BYTES);
+        try {
+            while (segments.size() <= i) {
+                long start = (long) segments.size() * SEGMENT_BYTES;
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_BYTES));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segments.get(i);
+    }
+
+
+    // ========================================================================
+    // [SECTION: Inspection hors ligne]
+    // ========================================================================
+
+    /**
+     * Affiche le contenu d'un journal : la chaîne la plus travaillée, du Genesis au sommet,
+     * et le nombre de blocs abandonnés (forks).
+     * <pre>
+     * java -cp out BlockStore blocks.log
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        try (BlockStore store = open(Paths.get(args[0]))) {
+            // 1. Le bloc le plus travaillé
+            HashMap<Hash256, Long> offsets = new HashMap<>();
+            Block[] best = new Block[1];
+            store.scan(offset -> {
+                Block block = store.read(offset);
+                offsets.put(block.hash, offset);
+                if (best[0] == null || block.chainWork > best[0].chainWork) best[0] = block;
+            });
+            if (best[0] == null) {
+                System.out.println("Journal vide");
+                return;
+            }
+
+            // 2. Remonter sa chaîne jusqu'au Genesis
+            ArrayList<Block> chain = new ArrayList<>();
+            for (Block b = best[0]; b != null; ) {
+                chain.add(b);
+                Long parent = offsets.get(b.previousHash);
+                b = parent == null ? null : store.read(parent);
+            }
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                Block b = chain.get(i);
+                System.out.println(b.height + "\t" + b.hash + "\t" + b.timestamp + "\t" + b.nonce + "\t"
+                        + b.transactionList.size() + " tx\t" + b.transactions);
+            }
+            System.out.println(store.size() + " blocs, " + chain.size() + " dans la chaîne principale, "
+                    + (store.size() - chain.size()) + " abandonnés, " + store.sizeBytes() + " octets");
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Arbre de blocs partagé par tous les nœuds de la simulation.
+ * <p>
+ * Chaque bloc accepté par au moins un nœud y est inséré UNE seule fois, avec un pointeur
+ * vers son parent, sa hauteur et le travail cumulé de sa branche. Un nœud ne conserve plus
+ * qu'un pointeur vers le sommet de sa chaîne ({@code tip}) : la longueur de chaîne et le
+ * choix de fork sont en O(1), et une réorganisation ne parcourt que les blocs situés
+ * au-dessus de l'ancêtre commun.
+ * <p>
+ * Avec un journal ({@link BlockStore}), seuls les blocs des {@code window} dernières hauteurs
+ * de la chaîne la plus travaillée restent en mémoire : les plus anciens sont relus à la demande,
+ * par hash ({@link #get}) ou par hauteur ({@link #ancestor}). Les blocs situés à la hauteur
+ * de l'horizon d'élagage n'ont plus de pointeur {@code parent} ; les parcours passent donc
+ * par {@link #parentOf(Block)}. Une réorganisation plus profonde que {@code window} n'est
+ * pas prise en charge (la fenêtre fait office de profondeur de finalité).
+ * <p>
+ * Un bloc n'est jamais modifié après son insertion (hormis la coupure de ce pointeur).
+ * <p>
+ * Sans journal, l'arbre accepte des insertions et lectures concurrentes (moteur autonome
+ * partitionné, un thread par groupe de nœuds) : deux insertions simultanées du même bloc
+ * renvoient la même instance. L'élagage, lui, suppose un seul thread de simulation.
+ */
+public class BlockTree {
+
+    /** Hash factice du bloc Genesis (commun à tous les nœuds). */
+    public static final Hash256 GENESIS_HASH =
+            Hash256.fromHex("0000000000000000000000000000000000000000000000000000000000000001");
+
+    private final ConcurrentHashMap<Hash256, Block> blocks = new ConcurrentHashMap<>();
+    private final Block genesis;
+
+    // --- Élagage (uniquement avec un journal) ---
+    private final BlockStore store;
+    private final int window;
+    private final HashMap<Integer, ArrayList<Block>> byHeight = new HashMap<>();
+
+    /** Plus ancien bloc de la chaîne principale encore en mémoire. */
+    private Block horizon;
+
+    /** Bloc le plus travaillé inséré jusqu'ici. */
+    private Block best;
+
+    /** Position dans le journal des blocs de la chaîne principale situés sous l'horizon, par hauteur. */
+    private long[] canonicalOffsets = new long[1024];
+
+    /** Crée l'arbre avec son unique bloc Genesis (tout en mémoire, sans journal). */
+    public BlockTree() {
+        this(null, 0);
+    }
+
+    /**
+     * Crée l'arbre adossé à un journal.
+     * @param store Le journal où chaque bloc est écrit à son insertion ({@code null} = tout en mémoire).
+     * @param window Nombre de hauteurs gardées en mémoire sous le meilleur sommet.
+     */
+    public BlockTree(BlockStore store, int window) {
+        this.store = store;
+        this.window = window;
+
+        genesis = new Block("Bloc Genesis (Initial)", Hash256.ZERO);
+        genesis.hash = GENESIS_HASH;
+        genesis.height = 0;
+        genesis.chainWork = work(genesis);
+        if (store != null) {
+            if (window < 1) throw new IllegalArgumentException("Fenêtre d'élagage invalide : " + window);
+            Block known = store.find(GENESIS_HASH);
+            genesis.storeOffset = known != null ? known.storeOffset : store.append(genesis);
+            keep(genesis);
+        }
+        blocks.put(genesis.hash, genesis);
+        horizon = genesis;
+        best = genesis;
+    }
+
+    /** @return Le bloc Genesis, racine de toutes les chaînes. */
+    public Block genesis() {
+        return genesis;
+    }
+
+    /** @return Le journal de l'arbre, ou {@code null} s'il est entièrement en mémoire. */
+    public BlockStore store() {
+        return store;
+    }
+
+    /**
+     * @return Le bloc de hash donné (relu depuis le journal s'il a été élagué),
+     *         ou {@code null} s'il n'a jamais été inséré.
+     */
+    public Block get(Hash256 hash) {
+        Block block = blocks.get(hash);
+        if (block == null && store != null) block = store.find(hash);
+        return block;
+    }
+
+    /** @return Le nombre de blocs connus (toutes branches confondues, élagués compris). */
+    public int size() {
+        return store != null ? store.size() : blocks.size();
+    }
+
+    /** @return Les blocs actuellement en mémoire, dans un ordre quelconque (vue en lecture seule). */
+    public Collection<Block> blocksInMemory() {
+        return Collections.unmodifiableCollection(blocks.values());
+    }
+
+    /** @return Le nombre de blocs actuellement en mémoire. */
+    public int sizeInMemory() {
+        return blocks.size();
+    }
+
+    /**
+     * Insère un bloc validé sous son parent.
+     * @param block Un bloc dont le parent est déjà dans l'arbre.
+     * @return L'instance de référence du bloc (celle déjà présente si le bloc était connu),
+     *         ou {@code null} si son parent est inconnu.
+     */
+    public Block add(Block block) {
+        Block existing = get(block.hash);
+        if (existing != null) return existing;
+
+        Block parent = get(block.previousHash);
+        if (parent == null) return null;
+
+        block.parent = parent;
+        block.height = parent.height + 1;
+        block.chainWork = parent.chainWork + work(block);
+        if (store == null) {
+            Block raced = blocks.putIfAbsent(block.hash, block);
+            return raced != null ? raced : block;
+        }
+
+        // Avec journal : écrit une fois, gardé en mémoire s'il est au-dessus de l'horizon
+        block.storeOffset = store.append(block);
+        if (block.height < horizon.height) {
+            block.parent = null; // Branche morte sous l'horizon : pas de chaîne de parents en mémoire
+            return block;
+        }
+        blocks.put(block.hash, block);
+        keep(block);
+        if (block.chainWork > best.chainWork) {
+            best = block;
+            advanceHorizon();
+        }
+        return block;
+    }
+
+
+    // --- Parcours de branches ---
+
+    /** @return Le parent du bloc (relu depuis le journal au-delà de l'horizon), ou {@code null} pour le Genesis. */
+    public Block parentOf(Block block) {
+        Block parent = block.parent;
+        if (parent != null || block.height == 0 || store == null) return parent;
+
+        // Lien coupé à l'horizon : parent sur la chaîne principale (par hauteur), sinon par hash
+        Block candidate = canonical(block.height - 1);
+        if (candidate != null && candidate.hash.equals(block.previousHash)) return candidate;
+        return store.find(block.previousHash);
+    }
+
+    /**
+     * @return L'ancêtre de {@code block} situé à la hauteur donnée (O(écart de hauteur) en mémoire,
+     *         O(1) sous l'horizon), ou {@code null} si cette hauteur est au-dessus du bloc.
+     */
+    public Block ancestor(Block block, int height) {
+        if (height > block.height || height < 0) return null;
+        Block current = block;
+        while (current.height > height) {
+            if (current == horizon) return canonical(height);
+            current = parentOf(current);
+        }
+        return current;
+    }
+
+    /** @return Le dernier bloc commun aux deux branches (O(profondeur du fork)). */
+    public Block commonAncestor(Block a, Block b) {
+        if (a.height > b.height) a = ancestor(a, b.height);
+        else if (b.height > a.height) b = ancestor(b, a.height);
+        while (!same(a, b)) {
+            a = parentOf(a);
+            b = parentOf(b);
+        }
+        return a;
+    }
+
+    /** @return {@code true} si {@code block} fait partie de la chaîne qui se termine par {@code tip}. */
+    public boolean isOnChain(Block block, Block tip) {
+        Block ancestor = ancestor(tip, block.height);
+        return ancestor != null && same(ancestor, block);
+    }
+
+    /** @return Le nombre de transactions incluses dans la chaîne qui se termine par {@code tip} (O(hauteur)). */
+    public long transactionCount(Block tip) {
+        long count = 0;
+        for (Block b = tip; b != null; b = parentOf(b)) {
+            count += b.transactionList.size();
+        }
+        return count;
+    }
+
+    /**
+     * Travail représenté par un bloc : le nombre moyen de hash nécessaires pour le miner
+     * (16^difficulté de son en-tête). Les blocs simulés comptent pour la difficulté du réseau
+     * qu'ils représentent, non pour leur difficulté réduite.
+     */
+    public static double work(Block block) {
+        return Math.scalb(1.0, 4 * block.targetDifficulty);
+    }
+
+    /** Un bloc relu depuis le journal est une autre instance : on compare alors les hash. */
+    private static boolean same(Block a, Block b) {
+        return a == b || a.hash.equals(b.hash);
+    }
+
+
+    // --- Élagage ---
+
+    /** @return Le bloc de la chaîne principale à cette hauteur, s'il est sur l'horizon ou en dessous. */
+    private Block canonical(int height) {
+        if (height == horizon.height) return horizon;
+        if (height > horizon.height || height < 0) return null;
+        return store.read(canonicalOffsets[height]);
+    }
+
+    private void keep(Block block) {
+        byHeight.computeIfAbsent(block.height, h -> new ArrayList<>()).add(block);
+    }
+
+    /**
+     * Fait monter l'horizon à {@code window} hauteurs sous le meilleur sommet : les blocs
+     * plus anciens quittent la mémoire, et ceux de la nouvelle hauteur d'horizon perdent
+     * leur pointeur parent (pour que le ramasse-miettes puisse libérer le reste).
+     */
+    private void advanceHorizon() {
+        int target = best.height - window;
+        if (target <= horizon.height) return;
+        Block newHorizon = ancestor(best, target);
+
+        // 1. Mémoriser la chaîne principale qui passe sous l'horizon
+        if (target >= canonicalOffsets.length) {
+            canonicalOffsets = Arrays.copyOf(canonicalOffsets, Math.max(target + 1, canonicalOffsets.length * 2));
+        }
+        for (Block b = newHorizon; b.height > horizon.height; ) {
+            b = parentOf(b);
+            canonicalOffsets[b.height] = b.storeOffset;
+        }
+
+        // 2. Libérer les hauteurs sous le nouvel horizon
+        for (int h = horizon.height; h < target; h++) {
+            ArrayList<Block> level = byHeight.remove(h);
+            if (level == null) continue;
+            for (Block b : level) {
+                if (b != genesis) blocks.remove(b.hash);
+            }
+        }
+
+        // 3. Couper les liens vers le passé
+        for (Block b : byHeight.getOrDefault(target, new ArrayList<>())) {
+            b.parent = null;
+        }
+        horizon = newHorizon;
+    }
+}
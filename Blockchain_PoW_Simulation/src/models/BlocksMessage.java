@@ -0,0 +1,23 @@
+import java.util.List;
+
+/**
+ * Réponse à {@link GetBlocksMessage} : un segment de blocs complets, du plus ancien au plus récent.
+ */
+public class BlocksMessage implements NetworkMessage {
+
+    /** Les blocs demandés, dans l'ordre de la chaîne. */
+    public final List<Block> blocks;
+
+    public BlocksMessage(List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    @Override
+    public int sizeBytes() {
+        int size = HEADER_BYTES;
+        for (Block block : blocks) {
+            size += block.sizeBytes() - HEADER_BYTES;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Vérification des blocs reçus, partagée par tous les nœuds d'une simulation.
+ * <p>
+ * Un bloc est valide si son hash correspond à son en-tête, si la difficulté de son en-tête est
+ * celle du réseau ({@link Block#difficulty}) et que son hash la respecte,
+ * si sa racine de Merkle correspond à son contenu, et s'il n'est "simulé" qu'en mode
+ * {@link MiningMode#STATISTICAL}. Un segment de chaîne (réponse de synchronisation, branche
+ * concurrente) est vérifié en parallèle sur tous les cœurs, puis ses liens de parenté
+ * dans l'ordre.
+ * <p>
+ * Chaque bloc valide est mémorisé (cache borné) : le même bloc relayé à des milliers de
+ * nœuds n'est haché qu'une fois. Un succès de cache exige la même instance, ou un bloc
+ * au contenu identique (en-tête et transactions) : un faux bloc qui usurpe le hash
+ * d'un bloc connu est bien revérifié, et rejeté.
+ * <p>
+ * Utilisable depuis plusieurs threads (moteur autonome partitionné) : le cache et les compteurs
+ * sont protégés par un verrou, le hachage se fait hors verrou. Deux threads qui vérifient
+ * simultanément le même bloc le hachent alors chacun une fois.
+ */
+public class ChainValidator {
+
+    /** En dessous de ce nombre de blocs à hacher, un segment est vérifié sur le thread appelant. */
+    private static final int PARALLEL_THRESHOLD = 4;
+
+    private final SimulationConfig config;
+
+    /** Blocs déjà vérifiés, par hash (les plus anciens sont évincés au-delà de la capacité). */
+    private final LinkedHashMap<Hash256, Block> validated;
+
+    /** Nombre de blocs effectivement hachés. */
+    public long verifiedBlocks;
+
+    /** Nombre de vérifications évitées grâce au cache. */
+    public long cacheHits;
+
+    public ChainValidator(SimulationConfig config) {
+        this.config = config;
+        int capacity = config.validatedCacheSize;
+        this.validated = new LinkedHashMap<Hash256, Block>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Hash256, Block> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** @return {@code true} si le bloc est valide (haché au plus une fois par simulation). */
+    public boolean validate(Block block) {
+        synchronized (this) {
+            if (isCached(block)) {
+                cacheHits++;
+                return true;
+            }
+            verifiedBlocks++;
+        }
+        boolean valid = check(block);
+        if (valid) {
+            synchronized (this) {
+                validated.put(block.hash, block);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Vérifie un segment de chaîne, du plus ancien au plus récent.
+     * <p>
+     * 1. Les blocs absents du cache sont hachés en parallèle.
+     * 2. Les liens sont vérifiés dans l'ordre : chaque bloc descend d'un bloc qui le précède
+     *    dans le segment, ou d'un bloc extérieur au segment (jamais de lui-même ni d'un bloc
+     *    qui le suit), et n'y figure qu'une fois.
+     * @return Le nombre de blocs valides en tête de segment ({@code segment.size()} si tout est valide) :
+     *         le premier bloc invalide disqualifie la suite.
+     */
+    public int validateSegment(List<Block> segment) {
+        int n = segment.size();
+
+        // 1. Preuve de travail et contenu, en parallèle pour les blocs non encore vérifiés
+        boolean[] valid = new boolean[n];
+        int[] toCheck = new int[n];
+        int count = 0;
+        synchronized (this) {
+            for (int i = 0; i < n; i++) {
+                if (isCached(segment.get(i))) {
+                    valid[i] = true;
+                    cacheHits++;
+                } else {
+                    toCheck[count++] = i;
+                }
+            }
+            verifiedBlocks += count;
+        }
+        if (config.parallelValidation && count >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, count).parallel().forEach(k -> valid[toCheck[k]] = check(segment.get(toCheck[k])));
+        } else {
+            for (int k = 0; k < count; k++) valid[toCheck[k]] = check(segment.get(toCheck[k]));
+        }
+
+        // 2. Liens de parenté, dans l'ordre du segment
+        HashMap<Hash256, Integer> position = new HashMap<>();
+        for (int i = 0; i < n; i++) position.putIfAbsent(segment.get(i).hash, i);
+        for (int i = 0; i < n; i++) {
+            Block block = segment.get(i);
+            Integer parent = position.get(block.previousHash);
+            if (!valid[i] || position.get(block.hash) != i || (parent != null && parent >= i)) return i;
+            synchronized (this) {
+                validated.put(block.hash, block);
+            }
+        }
+        return n;
+    }
+
+    /** Difficulté de l'en-tête, preuve de travail, hash de l'en-tête, racine de Merkle et règle des blocs simulés. */
+    private boolean check(Block block) {
+        return block.targetDifficulty == Block.difficulty && block.isValid()
+                && (!block.simulated || config.miningMode == MiningMode.STATISTICAL);
+    }
+
+    /** @return {@code true} si ce bloc (ou un bloc au contenu identique) a déjà été vérifié. */
+    private boolean isCached(Block block) {
+        Block known = validated.get(block.hash);
+        return known != null && (known == block || sameContent(known, block));
+    }
+
+    /** Comparaison champ à champ, sans hachage (blocs relus depuis un journal, par exemple). */
+    private static boolean sameContent(Block a, Block b) {
+        return a.nonce == b.nonce && a.timestamp == b.timestamp && a.simulated == b.simulated
+                && Objects.equals(a.previousHash, b.previousHash) && Objects.equals(a.merkleRoot, b.merkleRoot)
+                && Objects.equals(a.transactions, b.transactions) && a.transactionList.equals(b.transactionList);
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.List;
+
+/**
+ * Demande du contenu de blocs identifiés par leur hash
+ * (seuls ceux que le demandeur ne possède pas encore).
+ */
+public class GetBlocksMessage implements NetworkMessage {
+
+    /** Hash des blocs demandés, dans l'ordre de la chaîne. */
+    public final List<Hash256> hashes;
+
+    public GetBlocksMessage(List<Hash256> hashes) {
+        this.hashes = hashes;
+    }
+
+    @Override
+    public int sizeBytes() {
+        return HEADER_BYTES + hashes.size() * HASH_BYTES;
+    }
+}
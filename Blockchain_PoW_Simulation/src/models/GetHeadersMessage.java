@@ -0,0 +1,23 @@
+import java.util.List;
+
+/**
+ * Demande de synchronisation : "envoie-moi les en-têtes qui suivent notre dernier bloc commun".
+ * <p>
+ * Le localisateur liste des hash de la chaîne du demandeur, du sommet vers le Genesis,
+ * d'abord consécutifs puis de plus en plus espacés : le destinataire y trouve l'ancêtre
+ * commun en quelques comparaisons, quelle que soit la profondeur du fork.
+ */
+public class GetHeadersMessage implements NetworkMessage {
+
+    /** Hash de la chaîne du demandeur, du plus récent au plus ancien. */
+    public final List<Hash256> locator;
+
+    public GetHeadersMessage(List<Hash256> locator) {
+        this.locator = locator;
+    }
+
+    @Override
+    public int sizeBytes() {
+        return HEADER_BYTES + locator.size() * HASH_BYTES;
+    }
+}
@@ -0,0 +1,149 @@
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Empreinte SHA-256 sous forme binaire compacte (32 octets = 4 entiers longs).
+ * <p>
+ * Remplace les chaînes hexadécimales de 64 caractères : une comparaison coûte
+ * au plus quatre comparaisons de {@code long}, le {@code hashCode} est précalculé
+ * (clé de HashMap idéale) et l'objet occupe environ deux fois moins de mémoire.
+ * La conversion en hexadécimal n'a lieu qu'à l'affichage ({@link #toString()}).
+ * Objet immuable.
+ */
+public final class Hash256 {
+
+    /** Hash "nul", utilisé comme parent du bloc Genesis. */
+    public static final Hash256 ZERO = new Hash256(0, 0, 0, 0);
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Les 32 octets en big-endian : w0 contient les 8 premiers octets. */
+    private final long w0, w1, w2, w3;
+
+    private final int hashCode;
+
+    private Hash256(long w0, long w1, long w2, long w3) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+        // Les octets d'un SHA-256 sont déjà uniformément répartis
+        this.hashCode = (int) (w3 ^ (w3 >>> 32));
+    }
+
+
+    // --- Construction ---
+
+    /** Construit un hash à partir des 32 octets d'un digest SHA-256. */
+    public static Hash256 fromBytes(byte[] digestBytes) {
+        return new Hash256(readLong(digestBytes, 0), readLong(digestBytes, 8),
+                           readLong(digestBytes, 16), readLong(digestBytes, 24));
+    }
+
+    /**
+     * Construit un hash à partir de sa représentation hexadécimale (64 caractères).
+     * @throws IllegalArgumentException si la chaîne n'est pas un hash valide.
+     */
+    public static Hash256 fromHex(String hex) {
+        if (hex.length() != 64) {
+            throw new IllegalArgumentException("Un hash SHA-256 fait 64 caractères hexadécimaux : " + hex);
+        }
+        long[] words = new long[4];
+        for (int i = 0; i < 64; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) throw new IllegalArgumentException("Caractère non hexadécimal dans " + hex);
+            words[i >> 4] = (words[i >> 4] << 4) | digit;
+        }
+        return new Hash256(words[0], words[1], words[2], words[3]);
+    }
+
+
+    /** Digest réutilisable, un par thread (MessageDigest n'est pas thread-safe). */
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    });
+
+    /** @return Le SHA-256 des octets {@code data[offset .. offset+length[} (transactions, arbre de Merkle). */
+    public static Hash256 sha256(byte[] data, int offset, int length) {
+        MessageDigest digest = DIGEST.get();
+        digest.update(data, offset, length);
+        return fromBytes(digest.digest());
+    }
+
+
+    // --- Comparaisons (sans allocation) ---
+
+    /** @return {@code true} si ce hash est égal aux 32 octets bruts donnés. */
+    public boolean matches(byte[] digestBytes) {
+        return digestBytes.length == 32
+                && w0 == readLong(digestBytes, 0) && w1 == readLong(digestBytes, 8)
+                && w2 == readLong(digestBytes, 16) && w3 == readLong(digestBytes, 24);
+    }
+
+    /** @return Le nombre de zéros hexadécimaux en tête du hash (0 à 64). */
+    public int leadingZeroNibbles() {
+        if (w0 != 0) return Long.numberOfLeadingZeros(w0) >> 2;
+        if (w1 != 0) return 16 + (Long.numberOfLeadingZeros(w1) >> 2);
+        if (w2 != 0) return 32 + (Long.numberOfLeadingZeros(w2) >> 2);
+        if (w3 != 0) return 48 + (Long.numberOfLeadingZeros(w3) >> 2);
+        return 64;
+    }
+
+    /** @return {@code true} si le hash commence par au moins {@code zeros} zéros hexadécimaux. */
+    public boolean meetsDifficulty(int zeros) {
+        return leadingZeroNibbles() >= zeros;
+    }
+
+    /** Écrit les 32 octets du hash dans {@code buffer} à partir de {@code offset}. */
+    public void writeTo(byte[] buffer, int offset) {
+        writeLong(w0, buffer, offset);
+        writeLong(w1, buffer, offset + 8);
+        writeLong(w2, buffer, offset + 16);
+        writeLong(w3, buffer, offset + 24);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Hash256)) return false;
+        Hash256 other = (Hash256) o;
+        return hashCode == other.hashCode && w3 == other.w3 && w2 == other.w2 && w1 == other.w1 && w0 == other.w0;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /** @return La représentation hexadécimale (pour les traces et l'interface uniquement). */
+    @Override
+    public String toString() {
+        char[] chars = new char[64];
+        long[] words = {w0, w1, w2, w3};
+        for (int i = 0; i < 64; i++) {
+            chars[i] = HEX_DIGITS[(int) (words[i >> 4] >>> (60 - 4 * (i & 15))) & 0x0F];
+        }
+        return new String(chars);
+    }
+
+
+    // --- Outils big-endian ---
+
+    private static long readLong(byte[] b, int offset) {
+        return ((long) (b[offset] & 0xFF) << 56) | ((long) (b[offset + 1] & 0xFF) << 48)
+             | ((long) (b[offset + 2] & 0xFF) << 40) | ((long) (b[offset + 3] & 0xFF) << 32)
+             | ((long) (b[offset + 4] & 0xFF) << 24) | ((long) (b[offset + 5] & 0xFF) << 16)
+             | ((long) (b[offset + 6] & 0xFF) << 8) | ((long) (b[offset + 7] & 0xFF));
+    }
+
+    private static void writeLong(long value, byte[] b, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            b[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.List;
+
+/**
+ * Réponse à {@link GetHeadersMessage} : les hash des blocs de la chaîne de l'expéditeur
+ * situés après l'ancêtre commun, du plus ancien au plus récent.
+ */
+public class HeadersMessage implements NetworkMessage {
+
+    /** Hash des blocs manquants, dans l'ordre de la chaîne. */
+    public final List<Hash256> hashes;
+
+    public HeadersMessage(List<Hash256> hashes) {
+        this.hashes = hashes;
+    }
+
+    @Override
+    public int sizeBytes() {
+        return HEADER_BYTES + hashes.size() * HASH_BYTES;
+    }
+}
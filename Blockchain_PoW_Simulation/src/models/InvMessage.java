@@ -0,0 +1,22 @@
+import java.util.List;
+
+/**
+ * Annonce légère ("inventaire") : "je possède ces blocs".
+ * <p>
+ * Le destinataire ne réclame le contenu ({@link GetBlocksMessage}) que des blocs qu'il
+ * ne connaît pas encore : chaque bloc ne traverse ainsi qu'une fois chaque nœud.
+ */
+public class InvMessage implements NetworkMessage {
+
+    /** Hash des blocs annoncés. */
+    public final List<Hash256> hashes;
+
+    public InvMessage(List<Hash256> hashes) {
+        this.hashes = hashes;
+    }
+
+    @Override
+    public int sizeBytes() {
+        return HEADER_BYTES + hashes.size() * HASH_BYTES;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Réserve des transactions en attente d'inclusion dans un bloc (une par nœud).
+ * <p>
+ * Les transactions sont servies dans leur ordre d'arrivée. Celles d'un bloc accepté
+ * en sont retirées ; celles d'un bloc abandonné lors d'une réorganisation y reviennent.
+ * Au-delà de la capacité, la plus ancienne est évincée. Recherche, ajout et retrait
+ * en temps constant.
+ */
+public class Mempool {
+
+    private final int capacity;
+
+    /** Transactions par identifiant, dans l'ordre d'arrivée. */
+    private final LinkedHashMap<Hash256, Transaction> byId = new LinkedHashMap<>();
+
+    /**
+     * @param capacity Nombre maximal de transactions en attente.
+     */
+    public Mempool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Ajoute une transaction (sans effet si elle est déjà en attente).
+     * @return {@code true} si elle a été ajoutée.
+     */
+    public boolean add(Transaction tx) {
+        if (byId.putIfAbsent(tx.id, tx) != null) return false;
+        if (byId.size() > capacity) {
+            Iterator<Transaction> eldest = byId.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    /** @return {@code true} si cette transaction est en attente. */
+    public boolean contains(Hash256 id) {
+        return byId.containsKey(id);
+    }
+
+    /** Retire les transactions incluses dans un bloc. */
+    public void removeAll(List<Transaction> included) {
+        for (Transaction tx : included) {
+            byId.remove(tx.id);
+        }
+    }
+
+    /**
+     * @param maxCount Nombre maximal de transactions.
+     * @return Les plus anciennes transactions en attente (elles restent dans la réserve
+     *         jusqu'à l'acceptation du bloc qui les contient).
+     */
+    public List<Transaction> select(int maxCount) {
+        List<Transaction> selected = new ArrayList<>(Math.min(maxCount, byId.size()));
+        for (Transaction tx : byId.values()) {
+            if (selected.size() >= maxCount) break;
+            selected.add(tx);
+        }
+        return selected;
+    }
+
+    /** @return Les transactions en attente, dans l'ordre d'arrivée (vue en lecture seule). */
+    public Collection<Transaction> transactions() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /** @return Le nombre de transactions en attente. */
+    public int size() {
+        return byId.size();
+    }
+}
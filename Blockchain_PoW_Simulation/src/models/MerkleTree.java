@@ -0,0 +1,46 @@
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Racine de Merkle du contenu d'un bloc.
+ * <p>
+ * Les feuilles sont le hash du texte libre du bloc (équivalent de la transaction "coinbase")
+ * puis les identifiants des transactions, dans l'ordre du bloc. Chaque niveau hache les paires
+ * de nœuds (le dernier est dupliqué si le niveau est impair, comme dans Bitcoin).
+ * La racine entre dans l'en-tête de taille fixe : le coût d'une tentative de minage
+ * ne dépend plus du nombre ni de la taille des transactions.
+ */
+public final class MerkleTree {
+
+    private MerkleTree() {
+    }
+
+    /**
+     * @param text Le texte libre du bloc ({@code null} = chaîne vide).
+     * @param transactions Les transactions du bloc.
+     * @return La racine de Merkle (calcul en O(nombre de transactions)).
+     */
+    public static Hash256 root(String text, List<Transaction> transactions) {
+        // 1. Feuilles
+        Hash256[] level = new Hash256[1 + transactions.size()];
+        byte[] textBytes = (text == null ? "" : text).getBytes(StandardCharsets.UTF_8);
+        level[0] = Hash256.sha256(textBytes, 0, textBytes.length);
+        for (int i = 0; i < transactions.size(); i++) {
+            level[i + 1] = transactions.get(i).id;
+        }
+
+        // 2. Remonter niveau par niveau (le tableau est réutilisé sur place)
+        byte[] pair = new byte[64];
+        int count = level.length;
+        while (count > 1) {
+            int next = 0;
+            for (int i = 0; i < count; i += 2) {
+                level[i].writeTo(pair, 0);
+                level[Math.min(i + 1, count - 1)].writeTo(pair, 32);
+                level[next++] = Hash256.sha256(pair, 0, 64);
+            }
+            count = next;
+        }
+        return level[0];
+    }
+}
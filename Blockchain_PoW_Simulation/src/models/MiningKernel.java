@@ -0,0 +1,366 @@
+import java.lang.reflect.InvocationTargetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Noyau de recherche de nonce : teste d'un coup une plage de nonces d'un même en-tête.
+ * <p>
+ * Deux implémentations :
+ * <ul>
+ *   <li>{@link ScalarMiningKernel} : un nonce à la fois par {@link MessageDigest},
+ *       toujours disponible ;</li>
+ *   <li>{@code VectorMiningKernel} (répertoire {@code src/simd}) : 4, 8 ou 16 nonces par
+ *       instruction avec l'API Vector du JDK (module incubateur {@code jdk.incubator.vector}).
+ *       Chargé par réflexion : sans le module, ou s'il n'a pas été compilé, le noyau
+ *       scalaire est utilisé.</li>
+ * </ul>
+ * L'en-tête de {@link Block#HEADER_SIZE} octets occupe deux blocs SHA-256 : le premier
+ * (hash précédent et racine de Merkle) ne dépend pas du nonce, son état ("midstate") est
+ * calculé une fois par en-tête ({@link #prepare}). Le noyau vectoriel ne compresse que le
+ * second bloc, dont les trois premiers tours et les mots 16 et 17 du message sont eux
+ * aussi communs à tous les nonces.
+ * <p>
+ * Tout noyau est vérifié contre {@link MessageDigest} avant d'être retenu ({@link #select}).
+ * Le résultat de {@link #search} est le plus petit nonce gagnant de la plage, quel que soit
+ * le noyau : le choix du noyau ne change pas le déroulement d'une simulation.
+ */
+public abstract class MiningKernel {
+
+    /** Noyau vectoriel s'il est disponible et correct, sinon scalaire. */
+    public static final String AUTO = "auto";
+
+    /** Noyau scalaire (un nonce à la fois). */
+    public static final String SCALAR = "scalar";
+
+    /** Noyau vectoriel (erreur s'il n'est pas disponible). */
+    public static final String VECTOR = "vector";
+
+    /** Constantes de tour de SHA-256. */
+    static final int[] K = {
+        0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+        0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+        0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+        0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+        0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+        0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+        0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+        0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    /** État initial de SHA-256. */
+    static final int[] IV = {
+        0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    /** Premier tour propre à chaque nonce (le nonce est le mot 3 du second bloc). */
+    static final int FIRST_ROUND = 3;
+
+    /**
+     * Largeur demandée au noyau vectoriel (0 = préférée), lue une seule fois, au chargement
+     * de sa classe : l'espèce des vecteurs doit être une constante pour le JIT.
+     */
+    static int requestedLanes;
+
+    /** Noyau utilisé par {@link Block} (choisi au premier besoin). */
+    private static volatile MiningKernel current;
+
+    /** Nombre de nonces testés par ce noyau. */
+    public final LongAdder attempts = new LongAdder();
+
+    /** Temps passé dans {@link #search}, cumulé sur tous les threads (nanosecondes). */
+    public final LongAdder busyNanos = new LongAdder();
+
+    /** @return Le nom du noyau ({@link #SCALAR} ou {@link #VECTOR}). */
+    public abstract String name();
+
+    /** @return Le nombre de nonces hachés simultanément (1 pour le noyau scalaire). */
+    public abstract int lanes();
+
+    /**
+     * Cherche le plus petit nonce de {@code [fromNonce, fromNonce + count)} dont le hash
+     * commence par {@code zeros} zéros hexadécimaux.
+     * <p>
+     * Utilisable simultanément depuis plusieurs threads.
+     * @param midstate L'en-tête préparé ({@link #prepare}).
+     * @param fromNonce Premier nonce (positif).
+     * @param count Nombre de nonces ({@code fromNonce + count - 1 <= Integer.MAX_VALUE}).
+     * @param zeros Difficulté exigée.
+     * @return Le nonce gagnant, ou -1 s'il n'y en a aucun dans la plage.
+     */
+    public final int search(Midstate midstate, int fromNonce, int count, int zeros) {
+        long start = System.nanoTime();
+        int found = searchRange(midstate, fromNonce, count, zeros);
+        busyNanos.add(System.nanoTime() - start);
+        attempts.add(found < 0 ? count : found - fromNonce + 1);
+        return found;
+    }
+
+    /** @return Le débit mesuré, en tentatives par seconde et par thread de minage (0 sans mesure). */
+    public double attemptsPerSecond() {
+        long nanos = busyNanos.sum();
+        return nanos == 0 ? 0 : attempts.sum() / (nanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return name() + " (" + lanes() + (lanes() > 1 ? " voies)" : " voie)");
+    }
+
+    /** Implémentation de {@link #search} (sans les compteurs). */
+    protected abstract int searchRange(Midstate midstate, int fromNonce, int count, int zeros);
+
+    /**
+     * Calcule le hash complet de {@link #lanes()} nonces consécutifs (vérification du noyau).
+     * @param out Reçoit les 8 mots du hash de chaque nonce : {@code out[voie * 8 + mot]}.
+     */
+    abstract void hashLanes(Midstate midstate, int firstNonce, int[] out);
+
+
+    // --- Choix du noyau ---
+
+    /** @return Le noyau courant (le meilleur disponible si {@link #select} n'a pas été appelé). */
+    public static MiningKernel current() {
+        MiningKernel kernel = current;
+        if (kernel == null) {
+            synchronized (MiningKernel.class) {
+                if (current == null) current = select(AUTO, 0);
+                kernel = current;
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Choisit le noyau utilisé par {@link Block}, après vérification contre {@link MessageDigest}.
+     * @param kind {@link #AUTO}, {@link #SCALAR} ou {@link #VECTOR}.
+     * @param lanes Nombre de voies du noyau vectoriel (4, 8 ou 16 ; 0 = largeur préférée du processeur).
+     * @return Le noyau retenu.
+     * @throws IllegalArgumentException si {@code kind} est inconnu, ou si le noyau vectoriel
+     *         est exigé mais indisponible ou incorrect.
+     */
+    public static synchronized MiningKernel select(String kind, int lanes) {
+        if (!AUTO.equals(kind) && !SCALAR.equals(kind) && !VECTOR.equals(kind)) {
+            throw new IllegalArgumentException("Noyau de minage inconnu : " + kind);
+        }
+
+        // 1. Noyau vectoriel, s'il est demandé, disponible et correct
+        MiningKernel kernel = null;
+        if (!SCALAR.equals(kind)) {
+            try {
+                kernel = loadVectorKernel(lanes);
+            } catch (IllegalArgumentException e) {
+                if (VECTOR.equals(kind)) throw e;
+            }
+            if (kernel != null && !crossCheck(kernel)) {
+                if (VECTOR.equals(kind)) throw new IllegalArgumentException("Noyau " + kernel + " incorrect");
+                System.err.println("Noyau " + kernel + " incorrect, ignoré");
+                kernel = null;
+            }
+        }
+
+        // 2. Sinon, le noyau scalaire
+        if (kernel == null) {
+            kernel = new ScalarMiningKernel();
+            if (!crossCheck(kernel)) throw new IllegalStateException("Noyau " + kernel + " incorrect");
+        }
+        current = kernel;
+        return kernel;
+    }
+
+    /**
+     * @return Le noyau vectoriel.
+     * @throws IllegalArgumentException s'il n'est pas compilé, si le module est absent
+     *         ou si la largeur demandée n'est pas disponible.
+     */
+    private static MiningKernel loadVectorKernel(int lanes) {
+        requestedLanes = lanes;
+        try {
+            return (MiningKernel) Class.forName("VectorMiningKernel").getMethod("create", int.class).invoke(null, lanes);
+        } catch (InvocationTargetException e) {
+            // create() signale une largeur indisponible par IllegalArgumentException ; le reste est une panne
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw new IllegalArgumentException("Noyau vectoriel indisponible : " + e.getCause().getMessage(), e.getCause());
+            }
+            throw new IllegalStateException("Noyau vectoriel en échec", e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalArgumentException("Noyau vectoriel indisponible (src/simd non compilé, ou JVM lancée sans"
+                    + " --add-modules jdk.incubator.vector)", e);
+        }
+    }
+
+    /**
+     * Compare le noyau à {@link MessageDigest} : hash complets de nonces quelconques
+     * (y compris près de {@link Integer#MAX_VALUE}), puis premier nonce gagnant d'une plage.
+     */
+    static boolean crossCheck(MiningKernel kernel) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        Random random = new Random(0x5AD);
+        int[] out = new int[kernel.lanes() * 8];
+        int[] firstNonces = {0, 1 + random.nextInt(1 << 20), Integer.MAX_VALUE - kernel.lanes() + 1};
+
+        for (int trial = 0; trial < 4; trial++) {
+            // Un nouveau tableau par en-tête, comme Block (les noyaux reconnaissent l'en-tête à son identité)
+            byte[] header = new byte[Block.HEADER_SIZE];
+            random.nextBytes(header);
+            Midstate midstate = prepare(header);
+
+            // 1. Hash complets, voie par voie
+            for (int first : firstNonces) {
+                kernel.hashLanes(midstate, first, out);
+                for (int lane = 0; lane < kernel.lanes(); lane++) {
+                    int[] expected = words(digest.digest(withNonce(header, first + lane)));
+                    if (!Arrays.equals(out, lane * 8, lane * 8 + 8, expected, 0, 8)) return false;
+                }
+            }
+
+            // 2. Recherche : même premier nonce gagnant qu'un parcours un par un
+            int from = random.nextInt(1 << 20);
+            int expected = -1;
+            for (int n = from; n < from + 4096 && expected < 0; n++) {
+                if (Block.meetsDifficulty(digest.digest(withNonce(header, n)), 2)) expected = n;
+            }
+            if (kernel.searchRange(midstate, from, 4096, 2) != expected) return false;
+        }
+        return true;
+    }
+
+    private static byte[] withNonce(byte[] header, int nonce) {
+        byte[] copy = header.clone();
+        for (int i = 0; i < 4; i++) {
+            copy[Block.NONCE_OFFSET + i] = (byte) (nonce >>> (24 - 8 * i));
+        }
+        return copy;
+    }
+
+    private static int[] words(byte[] digestBytes) {
+        int[] w = new int[8];
+        for (int i = 0; i < 8; i++) w[i] = readInt(digestBytes, 4 * i);
+        return w;
+    }
+
+
+    // --- Préparation de l'en-tête ---
+
+    /**
+     * Calcule ce qui est commun à tous les nonces d'un en-tête. Objet immuable,
+     * partageable entre threads.
+     * @param header L'en-tête encodé ({@link Block#HEADER_SIZE} octets, nonce ignoré).
+     */
+    public static Midstate prepare(byte[] header) {
+        return new Midstate(header);
+    }
+
+    /** État SHA-256 commun à tous les nonces d'un en-tête. */
+    public static final class Midstate {
+
+        /** L'en-tête préparé (pour savoir s'il faut recommencer). */
+        final byte[] header;
+
+        /** État après le premier bloc (64 premiers octets de l'en-tête). */
+        final int[] state = new int[8];
+
+        /** État après les tours 0 à 2 du second bloc (ils précèdent le nonce). */
+        final int[] round3 = new int[8];
+
+        /** Mots 0 à 17 du message du second bloc (le mot 3, le nonce, vaut 0). */
+        final int[] w = new int[18];
+
+        Midstate(byte[] header) {
+            this.header = header;
+
+            // 1. Premier bloc : compression complète
+            int[] block = new int[64];
+            for (int i = 0; i < 16; i++) block[i] = readInt(header, 4 * i);
+            System.arraycopy(IV, 0, state, 0, 8);
+            compress(state, block);
+
+            // 2. Second bloc : fin de l'en-tête, bourrage et longueur (640 bits)
+            w[0] = readInt(header, 64);
+            w[1] = readInt(header, 68);
+            w[2] = readInt(header, 72);
+            w[4] = 0x80000000;
+            w[15] = Block.HEADER_SIZE * 8;
+            w[16] = sigma1(w[14]) + w[9] + sigma0(w[1]) + w[0];
+            w[17] = sigma1(w[15]) + w[10] + sigma0(w[2]) + w[1];
+
+            // 3. Tours 0 à 2 (indépendants du nonce)
+            int a = state[0], b = state[1], c = state[2], d = state[3];
+            int e = state[4], f = state[5], g = state[6], h = state[7];
+            for (int t = 0; t < FIRST_ROUND; t++) {
+                int t1 = h + bigSigma1(e) + (g ^ (e & (f ^ g))) + K[t] + w[t];
+                int t2 = bigSigma0(a) + ((a & b) | (c & (a | b)));
+                h = g; g = f; f = e; e = d + t1;
+                d = c; c = b; b = a; a = t1 + t2;
+            }
+            round3[0] = a; round3[1] = b; round3[2] = c; round3[3] = d;
+            round3[4] = e; round3[5] = f; round3[6] = g; round3[7] = h;
+        }
+    }
+
+
+    // --- Primitives SHA-256 (scalaires) ---
+
+    /** Compression complète d'un bloc : {@code w[0..15]} contient le bloc, le reste est écrasé. */
+    static void compress(int[] state, int[] w) {
+        for (int t = 16; t < 64; t++) {
+            w[t] = sigma1(w[t - 2]) + w[t - 7] + sigma0(w[t - 15]) + w[t - 16];
+        }
+        int a = state[0], b = state[1], c = state[2], d = state[3];
+        int e = state[4], f = state[5], g = state[6], h = state[7];
+        for (int t = 0; t < 64; t++) {
+            int t1 = h + bigSigma1(e) + (g ^ (e & (f ^ g))) + K[t] + w[t];
+            int t2 = bigSigma0(a) + ((a & b) | (c & (a | b)));
+            h = g; g = f; f = e; e = d + t1;
+            d = c; c = b; b = a; a = t1 + t2;
+        }
+        state[0] += a; state[1] += b; state[2] += c; state[3] += d;
+        state[4] += e; state[5] += f; state[6] += g; state[7] += h;
+    }
+
+    static int sigma0(int x) {
+        return Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+    }
+
+    static int sigma1(int x) {
+        return Integer.rotateRight(x, 17) ^ Integer.rotateRight(x, 19) ^ (x >>> 10);
+    }
+
+    static int bigSigma0(int x) {
+        return Integer.rotateRight(x, 2) ^ Integer.rotateRight(x, 13) ^ Integer.rotateRight(x, 22);
+    }
+
+    static int bigSigma1(int x) {
+        return Integer.rotateRight(x, 6) ^ Integer.rotateRight(x, 11) ^ Integer.rotateRight(x, 25);
+    }
+
+    /**
+     * Masque des bits qui doivent être nuls dans un mot du hash pour {@code zeros} zéros
+     * hexadécimaux (mot 0 = 8 premiers chiffres, mot 1 = 8 suivants).
+     */
+    static int zeroMask(int zeros, int word) {
+        int nibbles = Math.max(0, Math.min(8, zeros - 8 * word));
+        return nibbles == 0 ? 0 : -1 << (32 - 4 * nibbles);
+    }
+
+    /** @return {@code true} si les 8 mots du hash (à partir de {@code offset}) ont {@code zeros} zéros en tête. */
+    static boolean meetsDifficulty(int[] words, int offset, int zeros) {
+        if (zeros > 64) return false;
+        for (int i = 0; i < 8; i++) {
+            if ((words[offset + i] & zeroMask(zeros, i)) != 0) return false;
+        }
+        return true;
+    }
+
+    static int readInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+             | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+}
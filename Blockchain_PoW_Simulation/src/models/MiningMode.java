@@ -0,0 +1,28 @@
+/**
+ * Moteur de consensus utilisé par les nœuds pour chercher le nonce d'un bloc.
+ */
+public enum MiningMode {
+
+    /** Mode historique : une seule tentative de nonce par transition du Statechart. */
+    SINGLE_NONCE,
+
+    /**
+     * L'espace des nonces est réparti sur un pool de threads (fork-join) ;
+     * le Statechart se contente de relever le résultat à chaque transition.
+     */
+    PARALLEL,
+
+    /**
+     * Chaque transition essaie un lot de nonces proportionnel à la puissance de hachage
+     * du nœud ({@code hashRate}), éventuellement borné par un budget de temps réel.
+     */
+    BATCH,
+
+    /**
+     * Aucun hachage en force brute : le délai avant la prochaine découverte de chaque nœud
+     * est tiré selon une loi exponentielle (puissance de hachage / difficulté), et le bloc
+     * gagnant reçoit un vrai hash calculé à difficulté réduite ({@link Block#simulated}).
+     * Adapté aux réseaux de plusieurs milliers de nœuds.
+     */
+    STATISTICAL
+}
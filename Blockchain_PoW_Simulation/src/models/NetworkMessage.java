@@ -0,0 +1,17 @@
+/**
+ * Message échangé entre deux nœuds du réseau.
+ * <p>
+ * Chaque message déclare sa taille approximative "sur le fil", ce qui permet de mesurer
+ * la bande passante consommée par la diffusion et la synchronisation.
+ */
+public interface NetworkMessage {
+
+    /** Surcoût fixe d'un message (en-tête du protocole : type, longueur, somme de contrôle). */
+    int HEADER_BYTES = 24;
+
+    /** Taille d'un hash sérialisé. */
+    int HASH_BYTES = 32;
+
+    /** @return La taille du message en octets, en-tête compris. */
+    int sizeBytes();
+}
@@ -0,0 +1,80 @@
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de trafic réseau : nombre de messages et octets envoyés, par type de message.
+ * <p>
+ * Sert à mesurer le coût de la diffusion des blocs et de la synchronisation.
+ * Les compteurs sont sans verrou et peuvent être incrémentés depuis plusieurs threads.
+ */
+public class NetworkStats {
+
+    /** Compteurs d'un type de message. */
+    public static final class Counter {
+        public final LongAdder messages = new LongAdder();
+        public final LongAdder bytes = new LongAdder();
+    }
+
+    /** Messages de diffusion des blocs et de synchronisation (tout sauf les transactions). */
+    public static final Set<String> BLOCK_MESSAGE_TYPES = Set.of(
+            "Block", "InvMessage", "GetBlocksMessage", "BlocksMessage", "GetHeadersMessage", "HeadersMessage");
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /** Comptabilise l'envoi d'un message. */
+    public void record(NetworkMessage message) {
+        Counter counter = counters.computeIfAbsent(message.getClass().getSimpleName(), k -> new Counter());
+        counter.messages.increment();
+        counter.bytes.add(message.sizeBytes());
+    }
+
+    /** @return Le nombre total de messages envoyés, tous types confondus. */
+    public long totalMessages() {
+        long total = 0;
+        for (Counter counter : counters.values()) total += counter.messages.sum();
+        return total;
+    }
+
+    /** @return Le nombre de messages de diffusion des blocs et de synchronisation ({@link #BLOCK_MESSAGE_TYPES}). */
+    public long blockMessages() {
+        long total = 0;
+        for (String type : BLOCK_MESSAGE_TYPES) {
+            Counter counter = counters.get(type);
+            if (counter != null) total += counter.messages.sum();
+        }
+        return total;
+    }
+
+    /** @return Le nombre total d'octets envoyés, tous types confondus. */
+    public long totalBytes() {
+        long total = 0;
+        for (Counter counter : counters.values()) total += counter.bytes.sum();
+        return total;
+    }
+
+    /** @return Les compteurs par type de message, triés par nom. */
+    public Map<String, Counter> byType() {
+        return new TreeMap<>(counters);
+    }
+
+    /** Ajoute des envois déjà comptés ailleurs (reprise d'une sauvegarde). */
+    public void add(String type, long messages, long bytes) {
+        Counter counter = counters.computeIfAbsent(type, k -> new Counter());
+        counter.messages.add(messages);
+        counter.bytes.add(bytes);
+    }
+
+    /** @return Un résumé lisible (une ligne par type de message). */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Counter> e : byType().entrySet()) {
+            sb.append(String.format("%-20s %10d messages %14d octets%n",
+                    e.getKey(), e.getValue().messages.sum(), e.getValue().bytes.sum()));
+        }
+        sb.append(String.format("%-20s %10d messages %14d octets", "TOTAL", totalMessages(), totalBytes()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,65 @@
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Environnement d'exécution d'un nœud : tout ce que {@link NodeLogic} demande au moteur.
+ * <p>
+ * Implémenté par l'agent AnyLogic (Agent_Noeud, avec animations) et par le moteur
+ * à événements discrets autonome (HeadlessNode, sans interface). Les unités de temps
+ * sont des secondes simulées.
+ */
+public interface NodeHost {
+
+    // --- IDENTITÉ & TOPOLOGIE ---
+
+    /** @return L'index du nœud dans la population. */
+    int index();
+
+    /** @return Les nœuds voisins (connexions P2P). */
+    List<NodeLogic> peers();
+
+
+    // --- TEMPS, ALÉA & ÉVÉNEMENTS ---
+
+    /**
+     * Remet un message à un voisin.
+     * @param delaySeconds Latence réseau ; 0 ou moins = remise immédiate.
+     */
+    void sendMessage(NetworkMessage message, NodeLogic to, double delaySeconds);
+
+    /** @return Un tirage uniforme dans [min, max]. */
+    double randomUniform(double min, double max);
+
+    /** @return Un tirage exponentiel de taux {@code rate}. */
+    double randomExponential(double rate);
+
+    /** (Re)planifie la prochaine découverte de bloc (mode STATISTICAL), en annulant la précédente. */
+    void scheduleSolve(double delaySeconds);
+
+    /** (Re)planifie l'émission de la prochaine transaction par ce nœud, en annulant la précédente. */
+    void scheduleTransaction(double delaySeconds);
+
+    /** @return La date courante (secondes simulées). */
+    double now();
+
+    /** @return L'horodatage à inscrire dans les blocs et transactions créés (en millisecondes depuis 1970). */
+    long currentTimeMillis();
+
+    /** Écrit une ligne dans la console de la simulation. */
+    void trace(String line);
+
+
+    // --- AFFICHAGE (sans effet en mode autonome) ---
+
+    /** Allume brièvement le voyant du nœud. */
+    void flash(Color color);
+
+    /** Rafraîchit l'affichage de la longueur de chaîne. */
+    void updateVisuals();
+
+    /** Le nœud vient de miner un bloc (effets visuels du gagnant). */
+    void onBlockMined();
+
+    /** Anime l'envoi d'un bloc miné vers un voisin. */
+    void animateMessage(NodeLogic to);
+}
@@ -0,0 +1,713 @@
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Logique d'un nœud (Le Mineur / Validateur), indépendante du moteur de simulation.
+ * <p>
+ * Contient tout l'état de consensus d'un nœud (sommet de chaîne, caches, orphelins, minage)
+ * et ses réactions aux messages. Elle ne dépend que de {@link NodeHost} pour le temps,
+ * l'aléa, l'envoi de messages et l'affichage : le même code tourne dans l'agent AnyLogic
+ * (Agent_Noeud) et dans le moteur à événements discrets autonome (sans interface).
+ */
+public class NodeLogic {
+
+    // --- 0. ENVIRONNEMENT ---
+    public final NodeHost host;
+    public final SimulationContext context;
+    private final SimulationConfig config;
+
+    // --- 1. VARIABLES D'ÉTAT & MÉMOIRE ---
+    public Block tip;                       // Sommet de notre chaîne dans context.blockTree
+    public SeenCache<Hash256> seenBlocks;   // Blocs récemment traités et valides (acceptés, périmés)
+    public SeenCache<Hash256> connectedBlocks; // Blocs récemment rattachés par nous (toutes branches)
+    public OrphanPool orphanPool;           // Blocs valides dont le parent nous manque
+    public HashSet<NodeLogic> pendingSync = new HashSet<>(); // Voisins à qui une synchronisation est demandée
+    public HashMap<NodeLogic, SeenCache<Hash256>> peerKnown = new HashMap<>(); // Blocs que chaque voisin possède
+    public BlockRequests requestedBlocks;   // Blocs annoncés dont le contenu est déjà demandé (avec la date)
+    public Block blockInProgress;
+    public int currentNonce = 0;
+    public ParallelMiner parallelMiner;     // Workers multi-cœurs (mode PARALLEL uniquement)
+    public double hashRate;                 // Tentatives par seconde simulée (modes BATCH et STATISTICAL)
+    public long attempts = 0;               // Nonces essayés sur le thread de simulation (hors workers PARALLEL)
+    public long blocksMined = 0;            // Blocs minés par ce nœud
+
+    // --- 2. TRANSACTIONS ---
+    public Mempool mempool;                 // Transactions en attente d'inclusion dans un bloc
+    public SeenCache<Hash256> seenTransactions; // Transactions récemment reçues ou confirmées (anti-doublon)
+    public long transactionSequence = 0;    // Nombre de transactions émises par ce nœud
+
+
+    /**
+     * @param host L'environnement d'exécution (agent AnyLogic ou moteur autonome).
+     * @param context L'état partagé de la simulation (configuration, arbre de blocs, compteurs).
+     */
+    public NodeLogic(NodeHost host, SimulationContext context) {
+        this.host = host;
+        this.context = context;
+        this.config = context.config;
+
+        // 1. Partir du Bloc Genesis (commun à tous, créé par l'arbre partagé)
+        tip = context.blockTree.genesis();
+
+        // 2. Préparer la mémoire des blocs déjà traités
+        seenBlocks = new SeenCache<>(config.seenCacheSize);
+        connectedBlocks = new SeenCache<>(config.seenCacheSize);
+        requestedBlocks = new BlockRequests(config.seenCacheSize, config.blockRequestTimeout);
+        orphanPool = new OrphanPool(config.orphanPoolSize);
+        mempool = new Mempool(config.mempoolSize);
+        seenTransactions = new SeenCache<>(config.seenTransactionCacheSize);
+
+        context.metrics.registerNode();
+    }
+
+    /**
+     * Démarre le nœud : tire sa puissance de hachage et planifie ses premiers événements.
+     * <p>
+     * N'utilise pas les voisins : sous AnyLogic, le démarrage d'un {@code Agent_Noeud} précède
+     * la construction de la topologie par {@code Agent_Main}. Les voisins ne sont consultés qu'à
+     * l'exécution des événements planifiés ici (délais aléatoires, donc après le démarrage).
+     */
+    public void start() {
+        // Puissance de hachage propre à ce mineur (mineurs hétérogènes)
+        double spread = config.hashRateSpread;
+        hashRate = config.averageHashRate * host.randomUniform(1 - spread, 1 + spread);
+
+        // Mode STATISTICAL : planifier notre première découverte de bloc
+        if (config.miningMode == MiningMode.STATISTICAL) scheduleNextSolve();
+
+        // Émission de transactions (processus de Poisson)
+        if (config.transactionRate > 0) scheduleNextTransaction();
+    }
+
+    /** @return L'index du nœud dans la population (pour les traces). */
+    public int index() {
+        return host.index();
+    }
+
+    /**
+     * @return Le nombre de nonces essayés par ce nœud, workers parallèles compris
+     *         (en mode STATISTICAL, seulement les quelques essais des blocs simulés).
+     */
+    public long hashAttempts() {
+        return attempts + (parallelMiner == null ? 0 : parallelMiner.attempts.sum());
+    }
+
+    /** @return {@code true} si les traces de ce niveau sont écrites (le texte n'est construit qu'alors). */
+    private boolean traces(TraceLevel level) {
+        return config.traceLevel.compareTo(level) >= 0;
+    }
+
+    /** @return La longueur de notre chaîne, Genesis compris (O(1)). */
+    public int chainLength() {
+        return tip.height + 1;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Minage]
+    // Boucle de travail principale (Minage non-bloquant), appelée à chaque
+    // transition 'Mining' du Statechart ou à chaque tick du moteur autonome.
+    // ========================================================================
+    public void miningTick() {
+        // En mode STATISTICAL, le minage est piloté par solve() (aucun hachage ici)
+        if (config.miningMode == MiningMode.STATISTICAL) return;
+
+        // 1. Avons-nous un bloc sur lequel travailler ?
+        if (blockInProgress == null) {
+            // Non, alors créons-en un nouveau
+            blockInProgress = newBlock();
+            currentNonce = 0; // Réinitialiser le compteur de tentatives
+
+            if (config.miningMode == MiningMode.PARALLEL) {
+                if (parallelMiner == null) parallelMiner = new ParallelMiner(config.parallelWorkers);
+                parallelMiner.start(blockInProgress); // Les workers cherchent en arrière-plan
+            }
+        }
+
+        // 2. Faisons UNE tentative de minage (ou relevons le résultat des workers)
+        Hash256 winningHash;
+        if (config.miningMode == MiningMode.PARALLEL) {
+            winningHash = pollParallelMiner();
+            if (blockInProgress == null) return; // Espace des nonces épuisé : nouveau bloc au prochain tour
+        } else if (config.miningMode == MiningMode.BATCH) {
+            winningHash = mineBatch();
+        } else {
+            attempts++;
+            winningHash = blockInProgress.mineBlock(currentNonce); // On appelle mineBlock
+        }
+
+        // 3. Vérifions si on a gagné (si le résultat n'est pas 'null')
+        if (winningHash != null) {
+            
+            // --- ON A GAGNÉ ! ---
+            publishMinedBlock();
+
+        } else {
+            // --- ON A PERDU ---
+            // On augmente juste le compteur pour la prochaine tentative
+            currentNonce++;
+        }
+    }
+
+
+    /**
+     * @return Un bloc à miner sur notre sommet, rempli avec les plus anciennes transactions
+     *         de la mempool (racine de Merkle calculée ici, une seule fois).
+     */
+    private Block newBlock() {
+        return new Block("Transactions du bloc " + (tip.height + 1), tip.hash, host.currentTimeMillis(),
+                mempool.select(config.maxBlockTransactions));
+    }
+
+    /**
+     * Ajoute le bloc fraîchement miné à notre chaîne et le diffuse aux voisins.
+     * Commun à tous les modes de minage.
+     */
+    private void publishMinedBlock() {
+        // a. L'annoncer
+        if (traces(TraceLevel.INFO)) host.trace("Noeud " + index() + ": J'AI MINÉ LE BLOC " + (tip.height + 1) + " !");
+
+        host.flash(Color.GREEN);
+
+        // b. L'ajouter à l'arbre partagé et avancer notre sommet
+        Block previousTip = tip;
+        tip = context.blockTree.add(blockInProgress);
+        seenBlocks.add(tip.hash);
+        connectedBlocks.add(tip.hash);
+        confirmTransactions(tip, previousTip);
+        blocksMined++;
+        context.metrics.blockMined(tip, host.now());
+
+        host.onBlockMined();
+
+        // c. Le diffuser aux voisins (avec délai aléatoire si la latence réseau est simulée)
+        for (NodeLogic voisin : host.peers()) {
+            // Animation du messager (interface graphique uniquement)
+            host.animateMessage(voisin);
+
+            NetworkMessage message = blockMessageFor(blockInProgress, voisin);
+            context.networkStats.record(message);
+            double delai = config.latencyEnabled
+                    ? host.randomUniform(config.minedLatencyMin, config.minedLatencyMax)
+                    : 0;
+            host.sendMessage(message, voisin, delai);
+        }
+
+        // d. Mettre à jour notre affichage
+        host.updateVisuals();
+
+        // e. Réinitialiser le travail (prêt pour le bloc suivant)
+        abandonCurrentWork();
+    }
+
+
+    /** Mode STATISTICAL : le tirage exponentiel désigne ce nœud comme gagnant. */
+    public void solve() {
+        // 1. Construire le bloc sur notre dernier bloc
+        blockInProgress = newBlock();
+
+        // 2. Lui donner un vrai hash vérifiable, à difficulté réduite (quelques dizaines d'essais)
+        blockInProgress.simulated = true;
+        int nonce = 0;
+        while (blockInProgress.mineBlock(nonce) == null) {
+            nonce++;
+        }
+        attempts += nonce + 1;
+
+        // 3. Diffuser, puis replanifier la prochaine découverte
+        publishMinedBlock();
+    }
+
+    /**
+     * Mode STATISTICAL : tire le délai avant notre prochaine découverte de bloc.
+     * <p>
+     * Chaque nonce réussit avec une probabilité 16^-difficulté : le temps de résolution suit
+     * une loi exponentielle de taux {@code hashRate / 16^difficulté}. La loi étant sans mémoire,
+     * un changement de sommet de chaîne se traduit simplement par un nouveau tirage.
+     */
+    private void scheduleNextSolve() {
+        double expectedAttempts = Math.pow(16, Block.difficulty);
+        double delay = host.randomExponential(hashRate / expectedAttempts);
+        host.scheduleSolve(delay);
+    }
+
+    /**
+     * Mode BATCH : essaie en une transition autant de nonces que ce mineur en calcule
+     * pendant une période du Statechart, en rendant la main dès le succès
+     * ou à l'épuisement du budget de temps réel.
+     * @return Le hash gagnant, ou {@code null} si le lot a échoué.
+     */
+    private Hash256 mineBatch() {
+        int batchSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, hashRate * config.miningTickPeriod));
+        long deadline = config.batchTimeBudgetMillis > 0
+                ? System.nanoTime() + (long) (config.batchTimeBudgetMillis * 1_000_000)
+                : Long.MAX_VALUE;
+
+        boolean found = blockInProgress.mineRange(currentNonce, batchSize, deadline);
+        attempts += blockInProgress.nonce - currentNonce + 1;
+        if (found) {
+            return blockInProgress.hash;
+        }
+        // Reprendre au nonce suivant le dernier essayé (incrémenté plus bas)
+        currentNonce = blockInProgress.nonce;
+        return null;
+    }
+
+    /**
+     * Relève le nonce trouvé par les workers du mode PARALLEL.
+     * Le hash gagnant est recalculé une fois sur le thread de simulation pour remplir le bloc.
+     * @return Le hash gagnant, ou {@code null} si les workers cherchent encore.
+     */
+    private Hash256 pollParallelMiner() {
+        int winningNonce = parallelMiner.winningNonce();
+        if (winningNonce >= 0) {
+            return blockInProgress.mineBlock(winningNonce);
+        }
+        if (parallelMiner.isExhausted()) {
+            // Aucun nonce ne convient pour cet horodatage : on repartira d'un bloc neuf
+            abandonCurrentWork();
+        }
+        return null;
+    }
+
+    /** Abandonne le bloc en cours de minage (bloc miné, ou bloc concurrent accepté). */
+    private void abandonCurrentWork() {
+        blockInProgress = null;
+        currentNonce = 0;
+        if (parallelMiner != null) parallelMiner.cancel();
+        if (config.miningMode == MiningMode.STATISTICAL) scheduleNextSolve();
+    }
+
+
+    // ========================================================================
+    // [SECTION: Communication -> On message received]
+    // Cerveau du consensus : Validation, Acceptation, Synchronisation et Relais.
+    // ========================================================================
+    public void onMessage(Object msg, NodeLogic expediteur) {
+        if (msg instanceof Block) {
+            onBlockReceived((Block) msg, expediteur);
+        } else if (msg instanceof InvMessage) {
+            onInv((InvMessage) msg, expediteur);
+        } else if (msg instanceof GetHeadersMessage) {
+            onGetHeaders((GetHeadersMessage) msg, expediteur);
+        } else if (msg instanceof HeadersMessage) {
+            onHeaders((HeadersMessage) msg, expediteur);
+        } else if (msg instanceof GetBlocksMessage) {
+            onGetBlocks((GetBlocksMessage) msg, expediteur);
+        } else if (msg instanceof BlocksMessage) {
+            onBlocks((BlocksMessage) msg, expediteur);
+        } else if (msg instanceof Transaction) {
+            onTransaction((Transaction) msg, expediteur);
+        }
+    }
+
+    /** Un voisin nous pousse un bloc (nouveau bloc miné ou relayé). */
+    private void onBlockReceived(Block receivedBlock, NodeLogic expediteur) {
+        markKnownBy(expediteur, receivedBlock.hash);
+
+        // --- 1. PROTECTION ANTI-BOUCLE ---
+        // Si j'ai déjà traité ce bloc (ou s'il est dans ma chaîne, ou en attente), je l'ignore.
+        // Cela empêche le message de tourner en rond dans l'anneau.
+        if (isAlreadyKnown(receivedBlock.hash)) {
+            return; // STOP ! Je connais déjà.
+        }
+
+        // --- 2. VALIDATION ---
+        if (!validate(receivedBlock, expediteur)) return;
+
+        // --- 3. RATTACHEMENT ---
+        connectBlocks(List.of(receivedBlock), expediteur);
+    }
+
+    /**
+     * Un voisin annonce des blocs : on ne réclame que ceux qu'on n'a ni vus, ni déjà demandés
+     * (une demande restée sans réponse valide au-delà de {@code blockRequestTimeout} est renouvelée).
+     */
+    private void onInv(InvMessage inv, NodeLogic expediteur) {
+        ArrayList<Hash256> wanted = new ArrayList<>();
+        double now = host.now();
+        for (Hash256 hash : inv.hashes) {
+            markKnownBy(expediteur, hash);
+            if (!isAlreadyKnown(hash) && !requestedBlocks.isPending(hash, now)) {
+                requestedBlocks.add(hash, now);
+                wanted.add(hash);
+            }
+        }
+        if (!wanted.isEmpty()) {
+            sendToPeer(new GetBlocksMessage(wanted), expediteur);
+        }
+    }
+
+    /**
+     * Vérifie un bloc reçu (hash recalculé + preuve de travail + racine de Merkle)
+     * et, s'il est valide, le mémorise comme traité. Un bloc déjà vérifié pour un autre nœud
+     * n'est pas re-haché.
+     * <p>
+     * Un bloc rejeté n'est pas mémorisé : un faux bloc qui usurpe le hash d'un vrai bloc
+     * ne doit pas faire ignorer le vrai quand il arrive.
+     * @return {@code true} si le bloc est valide.
+     */
+    private boolean validate(Block receivedBlock, NodeLogic expediteur) {
+        // (un bloc "simulé", à difficulté réduite, n'est admis qu'en mode STATISTICAL)
+        boolean isValid = context.validator.validate(receivedBlock);
+
+        if (isValid) seenBlocks.add(receivedBlock.hash);
+        else reject(receivedBlock, expediteur);
+        return isValid;
+    }
+
+    /** Signale un bloc invalide (trace + voyant orange). */
+    private void reject(Block receivedBlock, NodeLogic expediteur) {
+        context.metrics.invalidBlocks.increment();
+        if (traces(TraceLevel.INFO)) host.trace("Noeud " + index() + ": Bloc " + receivedBlock.hash + " reçu de la part de Noeud "
+                + expediteur.index() + " est INVALIDE. REJETÉ.");
+        host.flash(Color.ORANGE);
+    }
+
+    /**
+     * Rattache un lot de blocs validés (dans l'ordre de la chaîne), puis les orphelins
+     * qui les attendaient, et applique UNE fois le choix de fork sur le résultat.
+     */
+    private void connectBlocks(List<Block> blocks, NodeLogic expediteur) {
+        // 1. Insertion dans l'arbre, en cascade avec les orphelins libérés
+        Block best = null;
+        ArrayDeque<Block> queue = new ArrayDeque<>(blocks);
+        while (!queue.isEmpty()) {
+            Block next = queue.poll();
+            if (!knows(next.previousHash)) {
+                // Parent inconnu : le bloc attend, et on demande le segment manquant à l'expéditeur
+                orphanPool.add(next);
+                context.metrics.orphanBlocks.increment();
+                if (traces(TraceLevel.DEBUG)) host.trace("Noeud " + index() + ": Bloc ORPHELIN reçu de Noeud " + expediteur.index() + ", synchronisation...");
+                requestSync(expediteur);
+                continue;
+            }
+            Block block = context.blockTree.add(next); // Instance déjà connue si un autre nœud l'a acceptée
+            if (!connectedBlocks.contains(block.hash)) context.metrics.blockReceived(block, host.now());
+            connectedBlocks.add(block.hash);
+            if (best == null || block.chainWork > best.chainWork) best = block;
+            queue.addAll(orphanPool.removeChildrenOf(block.hash));
+        }
+        if (best == null) return;
+
+        // CAS A : Le(s) bloc(s) prolongent parfaitement notre chaîne
+        if (context.blockTree.isOnChain(tip, best)) {
+            confirmTransactions(best, tip);
+            tip = best;
+            if (traces(TraceLevel.DEBUG)) host.trace("Noeud " + index() + ": Bloc " + tip.height + " reçu de la part de Noeud " + expediteur.index() + " et ACCEPTÉ.");
+            host.updateVisuals();
+            
+            host.flash(Color.BLUE);
+            
+            // Abandonner notre travail actuel (et stopper les workers parallèles)
+            abandonCurrentWork();
+
+            // --- PROPAGATION (Le Relais) ---
+            relayBlock(best, expediteur);
+
+        // CAS B : C'est un FORK, et l'autre branche est plus travaillée
+        } else if (best.chainWork > tip.chainWork) {
+            if (traces(TraceLevel.INFO)) host.trace("Noeud " + index() + ": FORK DÉTECTÉ ! Chaîne de " + expediteur.index() + " adoptée.");
+            switchTip(best);
+            host.updateVisuals();
+            host.flash(Color.YELLOW);
+            
+            // Abandonner notre travail actuel (et stopper les workers parallèles)
+            abandonCurrentWork();
+
+            // --- PROPAGATION DU FORK ---
+            // Je transmets la nouvelle chaîne (le dernier bloc) aux voisins
+            relayBlock(best, expediteur);
+        }
+        // CAS C : Branche moins travaillée : les blocs restent dans l'arbre, on les ignore
+    }
+
+
+    // ========================================================================
+    // [SECTION: Synchronisation (en-têtes d'abord)]
+    // Demandeur : GetHeaders -> (Headers) -> GetBlocks -> (Blocks) -> rattachement en lot.
+    // ========================================================================
+
+    /** Demande à un voisin les en-têtes qui nous manquent (une seule demande en cours par voisin). */
+    private void requestSync(NodeLogic voisin) {
+        if (pendingSync.add(voisin)) {
+            sendToPeer(new GetHeadersMessage(buildLocator()), voisin);
+        }
+    }
+
+    /** Côté fournisseur : liste les hash de notre chaîne situés après l'ancêtre commun. */
+    private void onGetHeaders(GetHeadersMessage request, NodeLogic demandeur) {
+        // 1. Premier hash du localisateur présent dans notre chaîne (au pire : le Genesis)
+        Block fork = context.blockTree.genesis();
+        for (Hash256 hash : request.locator) {
+            Block known = context.blockTree.get(hash);
+            if (known != null && context.blockTree.isOnChain(known, tip)) {
+                fork = known;
+                break;
+            }
+        }
+
+        // 2. Blocs au-dessus de l'ancêtre commun, du plus ancien au plus récent (lot borné)
+        int count = Math.min(tip.height - fork.height, config.maxSyncBatch);
+        Hash256[] hashes = new Hash256[count];
+        for (Block b = context.blockTree.ancestor(tip, fork.height + count); b.height > fork.height;
+                b = context.blockTree.parentOf(b)) {
+            hashes[b.height - fork.height - 1] = b.hash;
+        }
+        sendToPeer(new HeadersMessage(Arrays.asList(hashes)), demandeur);
+    }
+
+    /** Côté demandeur : ne réclame que les blocs que nous n'avons pas déjà. */
+    private void onHeaders(HeadersMessage response, NodeLogic fournisseur) {
+        pendingSync.remove(fournisseur);
+
+        ArrayList<Hash256> missing = new ArrayList<>();
+        for (Hash256 hash : response.hashes) {
+            if (!knows(hash) && !orphanPool.contains(hash)) missing.add(hash);
+        }
+        if (!missing.isEmpty()) {
+            sendToPeer(new GetBlocksMessage(missing), fournisseur);
+        }
+
+        // Lot plein : il reste des en-têtes, on reprend après le dernier reçu
+        if (response.hashes.size() >= config.maxSyncBatch) {
+            ArrayList<Hash256> locator = new ArrayList<>();
+            locator.add(response.hashes.get(response.hashes.size() - 1));
+            locator.addAll(buildLocator());
+            pendingSync.add(fournisseur);
+            sendToPeer(new GetHeadersMessage(locator), fournisseur);
+        }
+    }
+
+    /** Côté fournisseur : envoie le contenu des blocs demandés que nous possédons. */
+    private void onGetBlocks(GetBlocksMessage request, NodeLogic demandeur) {
+        ArrayList<Block> blocks = new ArrayList<>(request.hashes.size());
+        for (Hash256 hash : request.hashes) {
+            if (knows(hash)) blocks.add(context.blockTree.get(hash));
+        }
+        if (!blocks.isEmpty()) {
+            sendToPeer(new BlocksMessage(blocks), demandeur);
+        }
+    }
+
+    /**
+     * Côté demandeur : valide le segment reçu en entier (en parallèle, liens de parenté compris)
+     * puis le rattache en un seul lot. Une branche concurrente n'est donc jamais adoptée
+     * sans que chacun de ses blocs ait été vérifié.
+     */
+    private void onBlocks(BlocksMessage response, NodeLogic fournisseur) {
+        ArrayList<Block> segment = new ArrayList<>(response.blocks.size());
+        for (Block block : response.blocks) {
+            markKnownBy(fournisseur, block.hash);
+            if (!knows(block.hash)) segment.add(block);
+        }
+
+        // Un bloc invalide disqualifie la suite du segment
+        int validCount = context.validator.validateSegment(segment);
+        for (int i = 0; i < validCount; i++) {
+            seenBlocks.add(segment.get(i).hash);
+        }
+        if (validCount < segment.size()) {
+            reject(segment.get(validCount), fournisseur);
+            // Blocs invalides ou disqualifiés : un autre voisin pourra les fournir
+            for (int i = validCount; i < segment.size(); i++) requestedBlocks.remove(segment.get(i).hash);
+        }
+        connectBlocks(segment.subList(0, validCount), fournisseur);
+    }
+
+    /**
+     * Localisateur de notre chaîne : les 10 derniers hash, puis des hash de plus en plus
+     * espacés (pas doublé à chaque fois), et enfin le Genesis.
+     */
+    private List<Hash256> buildLocator() {
+        ArrayList<Hash256> locator = new ArrayList<>();
+        int step = 1;
+        Block b = tip;
+        while (b != null) {
+            locator.add(b.hash);
+            if (locator.size() >= 10) step *= 2;
+            // Saut par hauteur : O(1) sous l'horizon d'élagage de l'arbre
+            b = context.blockTree.ancestor(b, b.height - step);
+        }
+        Hash256 genesisHash = context.blockTree.genesis().hash;
+        if (!locator.get(locator.size() - 1).equals(genesisHash)) locator.add(genesisHash);
+        return locator;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Connaissance locale du nœud]
+    // ========================================================================
+
+    /** @return {@code true} si ce bloc a déjà été traité, est dans notre chaîne, ou attend son parent. */
+    private boolean isAlreadyKnown(Hash256 hash) {
+        return seenBlocks.contains(hash) || orphanPool.contains(hash) || isOnMyChain(hash);
+    }
+
+    /**
+     * @return {@code true} si NOUS possédons ce bloc : il est dans notre chaîne, ou nous l'avons
+     *         nous-mêmes rattaché récemment (branche concurrente). L'arbre partagé n'est qu'un
+     *         stockage : un bloc qu'un autre nœud y a inséré ne nous est pas "connu".
+     */
+    private boolean knows(Hash256 hash) {
+        Block known = context.blockTree.get(hash);
+        return known != null && (connectedBlocks.contains(hash) || context.blockTree.isOnChain(known, tip));
+    }
+
+    /**
+     * @return {@code true} si le bloc de ce hash est dans notre chaîne
+     *         (coût proportionnel à sa distance au sommet).
+     */
+    private boolean isOnMyChain(Hash256 hash) {
+        Block known = context.blockTree.get(hash);
+        return known != null && context.blockTree.isOnChain(known, tip);
+    }
+
+    /**
+     * Relaie un bloc à tous nos voisins, sauf à celui qui nous l'a envoyé
+     * (et, en mode INVENTORY, sauf à ceux qui l'ont déjà).
+     */
+    private void relayBlock(Block block, NodeLogic sender) {
+        boolean inventory = config.relayMode == RelayMode.INVENTORY;
+        for (NodeLogic voisin : host.peers()) {
+            if (voisin != sender && !(inventory && peerKnows(voisin, block.hash))) {
+                sendToPeer(blockMessageFor(block, voisin), voisin);
+            }
+        }
+    }
+
+    /**
+     * @return Le message qui transmet ce bloc à ce voisin : le bloc entier (PUSH),
+     *         ou une simple annonce (INVENTORY, le voisin est alors noté comme le connaissant).
+     */
+    private NetworkMessage blockMessageFor(Block block, NodeLogic voisin) {
+        if (config.relayMode == RelayMode.PUSH) return block;
+        markKnownBy(voisin, block.hash);
+        return new InvMessage(List.of(block.hash));
+    }
+
+    /** @return {@code true} si l'on sait que ce voisin possède (ou s'est vu annoncer) ce bloc. */
+    private boolean peerKnows(NodeLogic voisin, Hash256 hash) {
+        SeenCache<Hash256> known = peerKnown.get(voisin);
+        return known != null && known.contains(hash);
+    }
+
+    /** Note que ce voisin possède ce bloc : on ne le lui annoncera plus. */
+    private void markKnownBy(NodeLogic voisin, Hash256 hash) {
+        peerKnown.computeIfAbsent(voisin, v -> new SeenCache<>(config.peerKnownCacheSize)).add(hash);
+    }
+
+    /** Envoie un message à un voisin (latence aléatoire si la simulation de fork est active). */
+    private void sendToPeer(NetworkMessage msg, NodeLogic voisin) {
+        context.networkStats.record(msg);
+        double delai = config.latencyEnabled
+                ? host.randomUniform(config.relayLatencyMin, config.relayLatencyMax)
+                : 0;
+        host.sendMessage(msg, voisin, delai);
+    }
+
+    /**
+     * Réorganisation : bascule notre sommet sur une branche plus travaillée.
+     * <p>
+     * Aucun bloc n'est copié : seuls les blocs au-dessus de l'ancêtre commun
+     * sont parcourus (pour mémoriser nos blocs abandonnés).
+     */
+    private void switchTip(Block newTip) {
+        Block fork = context.blockTree.commonAncestor(tip, newTip);
+        context.metrics.reorg(tip.height - fork.height);
+        for (Block lost = tip; lost.height > fork.height; lost = context.blockTree.parentOf(lost)) {
+            seenBlocks.add(lost.hash);
+            // Les transactions des blocs abandonnés redeviennent en attente
+            for (Transaction tx : lost.transactionList) mempool.add(tx);
+        }
+        confirmTransactions(newTip, fork);
+        tip = newTip;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Transactions -> Émission, diffusion et confirmation]
+    // ========================================================================
+
+    /** Émet une nouvelle transaction (vers un voisin tiré au sort) et la diffuse. */
+    public void generateTransaction() {
+        List<NodeLogic> voisins = host.peers();
+        int recipient = voisins.isEmpty() ? index()
+                : voisins.get((int) Math.min(voisins.size() - 1, host.randomUniform(0, voisins.size()))).index();
+        Transaction tx = new Transaction(index(), transactionSequence++, recipient,
+                (long) host.randomUniform(1, 100), config.transactionPayloadBytes, host.currentTimeMillis());
+
+        seenTransactions.add(tx.id);
+        mempool.add(tx);
+        relayTransaction(tx, null);
+        scheduleNextTransaction();
+    }
+
+    /** Tire le délai avant notre prochaine transaction (loi exponentielle de taux {@code transactionRate}). */
+    private void scheduleNextTransaction() {
+        host.scheduleTransaction(host.randomExponential(config.transactionRate));
+    }
+
+    /** Un voisin relaie une transaction : on la garde en attente et on la relaie une seule fois. */
+    private void onTransaction(Transaction tx, NodeLogic expediteur) {
+        if (seenTransactions.contains(tx.id)) return;
+        seenTransactions.add(tx.id);
+        mempool.add(tx);
+        relayTransaction(tx, expediteur);
+    }
+
+    /** Relaie une transaction à tous nos voisins, sauf à celui qui nous l'a envoyée. */
+    private void relayTransaction(Transaction tx, NodeLogic sender) {
+        for (NodeLogic voisin : host.peers()) {
+            if (voisin != sender) sendToPeer(tx, voisin);
+        }
+    }
+
+    /**
+     * Retire de la mempool les transactions des blocs de {@code newTip} situés au-dessus
+     * de {@code ancestor} (blocs nouvellement acceptés) ; elles ne seront plus relayées.
+     */
+    private void confirmTransactions(Block newTip, Block ancestor) {
+        for (Block b = newTip; b.height > ancestor.height; b = context.blockTree.parentOf(b)) {
+            mempool.removeAll(b.transactionList);
+            for (Transaction tx : b.transactionList) seenTransactions.add(tx.id);
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Attaque -> Diffuser un bloc invalide]
+    // ========================================================================
+
+    /**
+     * Simule un "Mineur Paresseux" ou malveillant : diffuse à nos voisins un bloc
+     * dont le hash ne correspond pas aux données (aucun travail de hachage effectué).
+     */
+    public void broadcastInvalidBlock() {
+        // 1. Feedback Visuel : l'attaquant flashe en ROUGE
+        host.flash(Color.RED);
+
+        // 2. On prépare un faux bloc, basé sur notre dernier bloc valide pour que la fraude soit subtile
+        Block fakeBlock = new Block("FAUSSES TRANSACTIONS", tip.hash, host.currentTimeMillis());
+
+        // LA FRAUDE : On force un hash qui ne correspond pas mathématiquement aux données + nonce
+        fakeBlock.hash = Hash256.fromHex("0000aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+
+        // 3. L'ATTAQUE (Logique uniquement)
+        if (traces(TraceLevel.INFO)) host.trace("--- ATTAQUE : Noeud " + index() + " diffuse un FAUX BLOC ! ---");
+
+        // On pousse la fraude directement à chaque voisin
+        for (NodeLogic voisin : host.peers()) {
+            context.networkStats.record(fakeBlock);
+            double delai = config.latencyEnabled
+                    ? host.randomUniform(config.minedLatencyMin, config.minedLatencyMax) // Réseau réaliste
+                    : 0.001;                                                              // Délai infime
+            host.sendMessage(fakeBlock, voisin, delai);
+        }
+    }
+}
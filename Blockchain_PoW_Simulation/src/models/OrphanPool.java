@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Réserve bornée de blocs "orphelins" : valides, mais dont le parent est encore inconnu du nœud.
+ * <p>
+ * Les blocs sont indexés par le hash du parent manquant : à l'arrivée de celui-ci, tous ses
+ * enfants sont récupérés en une seule recherche et rattachés en lot. Au-delà de la capacité,
+ * l'orphelin le plus ancien est évincé.
+ */
+public class OrphanPool {
+
+    private final int capacity;
+
+    /** Orphelins par hash, dans l'ordre d'arrivée (pour l'éviction). */
+    private final LinkedHashMap<Hash256, Block> byHash = new LinkedHashMap<>();
+
+    /** Orphelins regroupés par hash du parent manquant. */
+    private final HashMap<Hash256, List<Block>> byParent = new HashMap<>();
+
+    /**
+     * @param capacity Nombre maximal d'orphelins conservés.
+     */
+    public OrphanPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /** Met un bloc en attente de son parent. */
+    public void add(Block block) {
+        if (byHash.containsKey(block.hash)) return;
+
+        byHash.put(block.hash, block);
+        byParent.computeIfAbsent(block.previousHash, h -> new ArrayList<>(1)).add(block);
+
+        if (byHash.size() > capacity) {
+            Iterator<Block> eldest = byHash.values().iterator();
+            Block evicted = eldest.next();
+            eldest.remove();
+            detachFromParent(evicted);
+        }
+    }
+
+    /** @return {@code true} si ce bloc attend déjà son parent. */
+    public boolean contains(Hash256 hash) {
+        return byHash.containsKey(hash);
+    }
+
+    /**
+     * Retire et renvoie les orphelins dont le parent vient d'arriver.
+     * @return Les enfants en attente (liste vide s'il n'y en a aucun).
+     */
+    public List<Block> removeChildrenOf(Hash256 parentHash) {
+        List<Block> children = byParent.remove(parentHash);
+        if (children == null) return List.of();
+        for (Block child : children) {
+            byHash.remove(child.hash);
+        }
+        return children;
+    }
+
+    /** @return Les orphelins, du plus ancien au plus récent (vue en lecture seule). */
+    public Collection<Block> blocks() {
+        return Collections.unmodifiableCollection(byHash.values());
+    }
+
+    /** @return Le nombre d'orphelins en attente. */
+    public int size() {
+        return byHash.size();
+    }
+
+    private void detachFromParent(Block block) {
+        List<Block> siblings = byParent.get(block.previousHash);
+        if (siblings == null) return;
+        siblings.remove(block);
+        if (siblings.isEmpty()) byParent.remove(block.previousHash);
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recherche multi-cœurs du nonce d'un bloc.
+ * <p>
+ * L'espace des nonces est découpé en tranches distribuées à la demande aux tâches d'un
+ * pool fork-join partagé par tous les nœuds. Le premier worker qui trouve un hash valide
+ * publie son nonce ; le nœud le relève depuis le thread de simulation ({@link #winningNonce()})
+ * et il ne modifie jamais le bloc lui-même. Un appel à {@link #cancel()} (bloc concurrent
+ * accepté) arrête tous les workers en quelques centaines de hash.
+ * <p>
+ * Permet de simuler des difficultés réalistes (5 à 6 zéros) sans geler la simulation.
+ */
+public class ParallelMiner {
+
+    /** Pool commun à tous les nœuds : un thread par cœur, quel que soit le nombre de mineurs. */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /** Nombre de nonces réservés d'un coup par un worker. */
+    private static final int CHUNK_SIZE = 4096;
+
+    /** Nombre de tranches traitées avant de rendre la main au pool (équité entre les nœuds). */
+    private static final int CHUNKS_PER_SLICE = 16;
+
+    /** Fréquence (en nonces) de vérification de l'annulation. */
+    private static final int CANCEL_CHECK_MASK = 255;
+
+    private final int workers;
+
+    /** Nombre de nonces essayés par les workers, tous blocs confondus. */
+    public final LongAdder attempts = new LongAdder();
+
+    /** Travail en cours (null si aucun). */
+    private volatile Job job;
+
+    /**
+     * @param workers Nombre de tâches lancées en parallèle pour chaque bloc.
+     */
+    public ParallelMiner(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Lance la recherche sur un nouveau bloc (le travail précédent est annulé).
+     * <p>
+     * Le nonce 0 est testé sur le thread appelant : cela encode l'en-tête du bloc
+     * avant que les workers ne le lisent.
+     */
+    public void start(Block block) {
+        cancel();
+        Job newJob = new Job(block, attempts);
+        attempts.increment();
+        if (block.tryNonce(0)) {
+            newJob.winner.set(0);
+        } else {
+            newJob.nextNonce.set(1);
+            newJob.activeWorkers.set(workers);
+            for (int i = 0; i < workers; i++) {
+                POOL.execute(new Worker(newJob));
+            }
+        }
+        job = newJob;
+    }
+
+    /** Arrête immédiatement tous les workers du bloc en cours. */
+    public void cancel() {
+        Job current = job;
+        if (current != null) {
+            current.cancelled = true;
+            job = null;
+        }
+    }
+
+    /** @return Le nonce gagnant du bloc en cours, ou -1 si aucun n'a encore été trouvé. */
+    public int winningNonce() {
+        Job current = job;
+        return current == null ? -1 : current.winner.get();
+    }
+
+    /** @return {@code true} si tous les nonces positifs ont été essayés sans succès. */
+    public boolean isExhausted() {
+        Job current = job;
+        return current != null && current.winner.get() < 0 && current.activeWorkers.get() == 0;
+    }
+
+
+    /** État partagé entre les workers d'un même bloc. */
+    private static final class Job {
+        final Block block;
+        final LongAdder attempts;
+        final AtomicLong nextNonce = new AtomicLong();
+        final AtomicInteger winner = new AtomicInteger(-1);
+        final AtomicInteger activeWorkers = new AtomicInteger();
+        volatile boolean cancelled;
+
+        Job(Block block, LongAdder attempts) {
+            this.block = block;
+            this.attempts = attempts;
+        }
+
+        boolean isDone() {
+            return cancelled || winner.get() >= 0;
+        }
+    }
+
+    /** Tâche qui consomme des tranches de nonces jusqu'au succès, à l'annulation ou à l'épuisement. */
+    private static final class Worker implements Runnable {
+        private final Job job;
+
+        Worker(Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            if (mineSlice()) {
+                // Laisser passer les workers des autres nœuds avant de continuer
+                POOL.execute(this);
+            } else {
+                job.activeWorkers.decrementAndGet();
+            }
+        }
+
+        /** @return {@code true} s'il reste des nonces à essayer pour ce bloc. */
+        private boolean mineSlice() {
+            for (int slice = 0; slice < CHUNKS_PER_SLICE; slice++) {
+                if (job.isDone()) return false;
+
+                // 1. Réserver une tranche de nonces
+                long from = job.nextNonce.getAndAdd(CHUNK_SIZE);
+                if (from > Integer.MAX_VALUE) return false;
+                long to = Math.min(from + CHUNK_SIZE, (long) Integer.MAX_VALUE + 1);
+
+                // 2. La parcourir par paquets (noyau de minage), en surveillant l'annulation
+                for (long n = from; n < to; n += CANCEL_CHECK_MASK + 1) {
+                    if (job.isDone()) return false;
+                    int count = (int) Math.min(CANCEL_CHECK_MASK + 1, to - n);
+                    int found = job.block.searchNonce((int) n, count);
+                    job.attempts.add(found >= 0 ? found - n + 1 : count);
+                    if (found >= 0) {
+                        job.winner.compareAndSet(-1, found);
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
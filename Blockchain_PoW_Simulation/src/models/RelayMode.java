@@ -0,0 +1,15 @@
+/**
+ * Manière dont un nœud transmet un nouveau bloc à ses voisins.
+ */
+public enum RelayMode {
+
+    /** Mode historique : le bloc complet est poussé à chaque voisin (sauf l'expéditeur). */
+    PUSH,
+
+    /**
+     * Annonce puis récupération : seul le hash est envoyé ({@link InvMessage}), le voisin
+     * demande le contenu s'il ne l'a pas. Un voisin dont on sait qu'il possède déjà
+     * le bloc ne reçoit pas d'annonce.
+     */
+    INVENTORY
+}
@@ -0,0 +1,92 @@
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Noyau de minage scalaire : un nonce à la fois, par {@link MessageDigest}.
+ * <p>
+ * Repli toujours disponible du noyau vectoriel, et référence de ses mesures. Il hache
+ * l'en-tête complet plutôt que de repartir du midstate : le SHA-256 du JDK est compilé en
+ * instructions dédiées (SHA-NI, AVX2), nettement plus rapides qu'une compression écrite
+ * en Java, même réduite au second bloc.
+ * <p>
+ * C'est aussi l'unique chemin SHA-256 de {@link Block} ({@link #digest}) : hachage, vérification
+ * et minage nonce par nonce passent par le même code que ce noyau.
+ */
+public final class ScalarMiningKernel extends MiningKernel {
+
+    /** Digest, en-tête et hash, un par thread. */
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    @Override
+    public String name() {
+        return SCALAR;
+    }
+
+    @Override
+    public int lanes() {
+        return 1;
+    }
+
+    @Override
+    protected int searchRange(Midstate midstate, int fromNonce, int count, int zeros) {
+        Workspace ws = WORKSPACE.get();
+        long end = (long) fromNonce + count;
+        for (long n = fromNonce; n < end; n++) {
+            if (Block.meetsDifficulty(ws.digest(midstate.header, (int) n), zeros)) return (int) n;
+        }
+        return -1;
+    }
+
+    @Override
+    void hashLanes(Midstate midstate, int firstNonce, int[] out) {
+        byte[] digestBytes = digest(midstate.header, firstNonce);
+        for (int i = 0; i < 8; i++) out[i] = readInt(digestBytes, 4 * i);
+    }
+
+    /**
+     * Calcule le SHA-256 d'un en-tête encodé de {@link Block#HEADER_SIZE} octets, avec le nonce donné.
+     * <p>
+     * Le tableau retourné appartient à l'espace de travail du thread courant :
+     * il est écrasé au prochain appel et ne doit pas être conservé.
+     */
+    static byte[] digest(byte[] header, int nonce) {
+        return WORKSPACE.get().digest(header, nonce);
+    }
+
+    /** Digest et tampons propres à un thread. */
+    private static final class Workspace {
+        final MessageDigest digest;
+        final byte[] buffer = new byte[Block.HEADER_SIZE];
+        final byte[] out = new byte[32];
+        byte[] header;
+
+        Workspace() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /** @return Le hash de l'en-tête avec ce nonce (tampon réutilisé au prochain appel). */
+        byte[] digest(byte[] encoded, int nonce) {
+            // L'en-tête n'est recopié qu'une fois par bloc, seul le nonce est réécrit
+            if (header != encoded) {
+                System.arraycopy(encoded, 0, buffer, 0, Block.HEADER_SIZE);
+                header = encoded;
+            }
+            buffer[Block.NONCE_OFFSET] = (byte) (nonce >>> 24);
+            buffer[Block.NONCE_OFFSET + 1] = (byte) (nonce >>> 16);
+            buffer[Block.NONCE_OFFSET + 2] = (byte) (nonce >>> 8);
+            buffer[Block.NONCE_OFFSET + 3] = (byte) nonce;
+            try {
+                digest.update(buffer, 0, Block.HEADER_SIZE);
+                digest.digest(out, 0, out.length);
+            } catch (DigestException e) {
+                throw new RuntimeException(e);
+            }
+            return out;
+        }
+    }
+}
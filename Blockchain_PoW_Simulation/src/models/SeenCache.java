@@ -0,0 +1,50 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mémoire bornée des identifiants déjà traités (blocs rejetés, perdants d'un fork...).
+ * <p>
+ * Les entrées les plus anciennes sont évincées au-delà de la capacité, de sorte que
+ * le coût mémoire reste constant quelle que soit la durée de la simulation.
+ * Recherche et insertion en temps constant.
+ *
+ * @param <K> Type de l'identifiant (le hash du bloc).
+ */
+public class SeenCache<K> {
+
+    private final LinkedHashMap<K, Boolean> entries;
+
+    /**
+     * @param capacity Nombre maximal d'identifiants conservés.
+     */
+    public SeenCache(int capacity) {
+        this.entries = new LinkedHashMap<K, Boolean>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Mémorise un identifiant (l'entrée la plus ancienne est évincée si la capacité est atteinte). */
+    public void add(K key) {
+        entries.put(key, Boolean.TRUE);
+    }
+
+    /** @return {@code true} si l'identifiant a été vu récemment. */
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /** @return Les identifiants mémorisés, du plus ancien au plus récent (vue en lecture seule). */
+    public Collection<K> keys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /** @return Le nombre d'identifiants actuellement mémorisés. */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Paramètres de la simulation partagés par tous les nœuds.
+ * <p>
+ * Regroupe les réglages qui ne sont pas exposés dans l'interface (cases à cocher, boutons)
+ * afin de pouvoir les modifier avant le lancement d'une expérience.
+ */
+public class SimulationConfig {
+
+    // --- MINAGE ---
+
+    /** Moteur de recherche du nonce utilisé par chaque nœud. */
+    public MiningMode miningMode = MiningMode.SINGLE_NONCE;
+
+    /** Nombre de tâches de minage lancées par nœud en mode {@link MiningMode#PARALLEL}. */
+    public int parallelWorkers = Runtime.getRuntime().availableProcessors();
+
+    /** Période (en secondes simulées) de la transition 'Mining' du Statechart. */
+    public double miningTickPeriod = 1.0;
+
+    /**
+     * Puissance de hachage moyenne d'un nœud (tentatives par seconde simulée)
+     * en modes {@link MiningMode#BATCH} et {@link MiningMode#STATISTICAL}. Valeur prévue pour le
+     * hachage réel de l'interface : en mode STATISTICAL, le moteur autonome la calcule d'après
+     * la taille du réseau ({@code HeadlessSimulation.hashRateFor}).
+     */
+    public double averageHashRate = 1000;
+
+    /**
+     * Dispersion des puissances de hachage autour de la moyenne (0 = mineurs identiques,
+     * 0.5 = tirage uniforme entre 50 % et 150 % de la moyenne).
+     */
+    public double hashRateSpread = 0.0;
+
+    /** Budget de temps réel maximal d'un lot, en millisecondes (0 = pas de limite). */
+    public double batchTimeBudgetMillis = 0;
+
+
+    // --- RÉSEAU ---
+
+    /** Protocole de diffusion des blocs (comparer PUSH et INVENTORY via Agent_Main.networkStats). */
+    public RelayMode relayMode = RelayMode.INVENTORY;
+
+    /** Nombre de hash retenus, pour chaque voisin, comme "déjà possédés par ce voisin". */
+    public int peerKnownCacheSize = 256;
+
+    /** Nombre de blocs récemment traités (anti-doublon) et rattachés dont chaque nœud garde la trace. */
+    public int seenCacheSize = 1024;
+
+    /**
+     * Délai (secondes simulées) au-delà duquel un bloc demandé après une annonce (INVENTORY)
+     * et jamais livré peut être redemandé au prochain voisin qui l'annonce.
+     */
+    public double blockRequestTimeout = 10.0;
+
+    /** Nombre maximal de blocs orphelins (parent inconnu) gardés en attente par nœud. */
+    public int orphanPoolSize = 256;
+
+    /** Nombre de blocs valides mémorisés par la simulation (chaque bloc n'est haché qu'une fois, voir {@link ChainValidator}). */
+    public int validatedCacheSize = 65536;
+
+    /**
+     * Vérifie les segments reçus sur tous les cœurs (voir {@link ChainValidator}) ; à désactiver
+     * quand plusieurs simulations se partagent déjà les cœurs (balayage de paramètres).
+     */
+    public boolean parallelValidation = true;
+
+    /** Nombre maximal de blocs transmis par réponse de synchronisation. */
+    public int maxSyncBatch = 500;
+
+    /**
+     * Latence réseau aléatoire (simulation de Fork). Dans AnyLogic, suit la case à cocher
+     * chk_simulerFork (lue au démarrage de Agent_Main, puis à chaque changement) ;
+     * sinon les messages sont remis instantanément.
+     */
+    public boolean latencyEnabled = false;
+
+    /** Bornes (secondes simulées) du délai de diffusion d'un bloc par son mineur. */
+    public double minedLatencyMin = 1.0;
+    public double minedLatencyMax = 2.0;
+
+    /** Bornes (secondes simulées) du délai des relais et messages de synchronisation. */
+    public double relayLatencyMin = 0.5;
+    public double relayLatencyMax = 3.0;
+
+
+    // --- TRANSACTIONS ---
+
+    /** Transactions émises par seconde simulée et par nœud (0 = aucune, blocs vides). */
+    public double transactionRate = 0;
+
+    /** Taille simulée des scripts et signatures d'une transaction, en octets (hors champs encodés). */
+    public int transactionPayloadBytes = 250;
+
+    /** Nombre maximal de transactions incluses dans un bloc. */
+    public int maxBlockTransactions = 2000;
+
+    /** Nombre maximal de transactions en attente dans la mempool de chaque nœud. */
+    public int mempoolSize = 20000;
+
+    /** Nombre de transactions récemment reçues ou confirmées dont chaque nœud garde la trace (anti-doublon). */
+    public int seenTransactionCacheSize = 4096;
+
+
+    // --- STOCKAGE DES BLOCS ---
+
+    /**
+     * Fichier du journal de blocs ({@link BlockStore}), recréé à chaque simulation. Si renseigné, l'arbre n'en garde en mémoire
+     * que les {@link #blockWindow} dernières hauteurs ; {@code null} = tout en mémoire.
+     */
+    public String blockStorePath;
+
+    /** Nombre de hauteurs gardées en mémoire sous le meilleur sommet (profondeur de finalité). */
+    public int blockWindow = 1000;
+
+
+    // --- TOPOLOGIE ---
+
+    /** Modèle de graphe P2P construit au démarrage (voir {@link TopologyBuilder}). */
+    public TopologyModel topologyModel = TopologyModel.RANDOM;
+
+    /** Degré visé (minimal en mode RANDOM, exact en RANDOM_REGULAR, moyen en SMALL_WORLD et SCALE_FREE). */
+    public int topologyDegree = 2;
+
+    /** Probabilité de redirection d'un lien en mode SMALL_WORLD (0 = anneau, 1 = aléatoire). */
+    public double smallWorldRewiring = 0.1;
+
+    /** Fichier de liste d'arêtes en mode FILE. */
+    public String topologyFile;
+
+
+    // --- TRACES & INDICATEURS ---
+
+    /** Niveau des traces écrites par les nœuds (OFF pour les mesures de débit). */
+    public TraceLevel traceLevel = TraceLevel.DEBUG;
+
+    /**
+     * Préfixe des fichiers d'indicateurs ({@link SimulationMetrics#export}) écrits en fin de
+     * simulation ; {@code null} = aucun export.
+     */
+    public String metricsPath;
+
+
+    // --- AFFICHAGE (AnyLogic uniquement) ---
+
+    /** N'animer qu'un envoi de bloc sur N par un Messager (1 = tous, 0 = aucun). */
+    public int animationSampleRate = 1;
+
+    /** Index des nœuds dont les envois et réceptions sont toujours animés, quel que soit l'échantillonnage. */
+    public Set<Integer> animatedNodes = new HashSet<>();
+
+    /** Période (en secondes simulées) du rafraîchissement groupé des voyants et compteurs des nœuds. */
+    public double uiRefreshPeriod = 0.25;
+}
@@ -0,0 +1,44 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * État partagé par tous les nœuds d'une simulation : réglages, arbre de blocs, compteurs et indicateurs.
+ * <p>
+ * Une instance par simulation, pour pouvoir en exécuter plusieurs dans le même processus.
+ */
+public class SimulationContext {
+
+    /** Réglages du consensus et du réseau. */
+    public final SimulationConfig config;
+
+    /** Arbre de tous les blocs acceptés (chaque nœud n'en garde que le sommet). */
+    public final BlockTree blockTree;
+
+    /** Compteurs de trafic (messages et octets par type), y compris la synchronisation. */
+    public final NetworkStats networkStats = new NetworkStats();
+
+    /** Indicateurs de la simulation (propagation, forks, blocs périmés, rejets...). */
+    public final SimulationMetrics metrics;
+
+    /** Vérification des blocs reçus, avec le cache des blocs déjà vérifiés (commun à tous les nœuds). */
+    public final ChainValidator validator;
+
+    /**
+     * @throws UncheckedIOException si le journal de blocs (config.blockStorePath) ne peut être ouvert.
+     */
+    public SimulationContext(SimulationConfig config) {
+        this.config = config;
+        this.validator = new ChainValidator(config);
+        if (config.blockStorePath == null) {
+            blockTree = new BlockTree();
+        } else {
+            try {
+                blockTree = new BlockTree(BlockStore.create(Paths.get(config.blockStorePath)), config.blockWindow);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Journal de blocs " + config.blockStorePath, e);
+            }
+        }
+        this.metrics = new SimulationMetrics(blockTree, networkStats);
+    }
+}
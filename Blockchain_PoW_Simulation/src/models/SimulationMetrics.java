@@ -0,0 +1,452 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indicateurs de la simulation : blocs minés, propagation, forks, blocs périmés et orphelins,
+ * rejets, trafic par bloc et puissance de hachage par nœud.
+ * <p>
+ * Compteurs et histogrammes sans verrou ({@link LongAdder}, tableaux atomiques) : le coût d'un
+ * enregistrement est de quelques incréments, sans allocation ni texte. Le suivi de propagation
+ * (quels blocs ont atteint combien de nœuds) n'est mis à jour que par le thread de simulation ;
+ * avec le moteur partitionné ({@link #deferPropagation()}), les réceptions sont mises en file
+ * et rejouées dans l'ordre chronologique entre deux fenêtres, ce qui donne les mêmes délais
+ * qu'une exécution séquentielle.
+ * <p>
+ * Export en JSON (bilan complet) et en CSV (une ligne par relevé, une ligne par nœud),
+ * à la fin de la simulation ou à intervalles réguliers. Les compteurs, les histogrammes et le suivi
+ * de propagation font partie d'une sauvegarde ({@code SimulationSnapshot}, {@link #writeTo}) :
+ * une simulation reprise produit le même bilan qu'une exécution sans interruption.
+ */
+public class SimulationMetrics {
+
+    /** Nombre de blocs dont la propagation est suivie simultanément (les plus anciens sont abandonnés). */
+    private static final int TRACKED_BLOCKS = 4096;
+
+    /** En-tête des lignes produites par {@link #csvRow}. */
+    public static final String CSV_HEADER = "time,nodes,blocksMined,bestHeight,staleBlocks,staleRate,orphanBlocks,"
+            + "invalidBlocks,reorgs,maxReorgDepth,messages,messagesPerBlock,"
+            + "propagation50Median,propagation90Median,propagation100Median,propagation100P90";
+
+    private final BlockTree blockTree;
+    private final NetworkStats networkStats;
+
+    /** Blocs minés (tous les nœuds). */
+    public final LongAdder blocksMined = new LongAdder();
+
+    /** Blocs reçus avant leur parent (mis en attente dans un {@link OrphanPool}). */
+    public final LongAdder orphanBlocks = new LongAdder();
+
+    /** Blocs rejetés par la validation. */
+    public final LongAdder invalidBlocks = new LongAdder();
+
+    /** Réorganisations (un nœud abandonne une partie de sa chaîne pour une branche plus travaillée). */
+    public final LongAdder reorgs = new LongAdder();
+
+    /** Profondeur des réorganisations (nombre de blocs abandonnés). */
+    public final Histogram reorgDepth = new Histogram();
+
+    /** Délai entre le minage d'un bloc et sa réception par 50 %, 90 % et 100 % des nœuds (millisecondes simulées). */
+    public final Histogram propagation50 = new Histogram();
+    public final Histogram propagation90 = new Histogram();
+    public final Histogram propagation100 = new Histogram();
+
+    /** Nombre de nœuds de la simulation. */
+    private int nodeCount;
+
+    /** Blocs en cours de propagation, par hash (thread de simulation uniquement). */
+    private final LinkedHashMap<Hash256, Propagation> propagating =
+            new LinkedHashMap<Hash256, Propagation>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Hash256, Propagation> eldest) {
+                    return size() > TRACKED_BLOCKS;
+                }
+            };
+
+    /** Réceptions en attente d'être rejouées ({@code null} = suivi immédiat, un seul thread). */
+    private volatile ConcurrentLinkedQueue<Reception> deferred;
+
+    public SimulationMetrics(BlockTree blockTree, NetworkStats networkStats) {
+        this.blockTree = blockTree;
+        this.networkStats = networkStats;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Enregistrement (appelé par NodeLogic)]
+    // ========================================================================
+
+    /** Un nœud rejoint la simulation (les seuils de propagation en dépendent). */
+    public void registerNode() {
+        nodeCount++;
+    }
+
+    /** Un nœud vient de miner ce bloc : il est le premier à le posséder. */
+    public void blockMined(Block block, double now) {
+        blocksMined.increment();
+        ConcurrentLinkedQueue<Reception> queue = deferred;
+        if (queue != null) queue.add(new Reception(block.hash, now, true));
+        else mined(block.hash, now);
+    }
+
+    /** Un nœud vient de rattacher ce bloc à son arbre (une seule fois par nœud). */
+    public void blockReceived(Block block, double now) {
+        ConcurrentLinkedQueue<Reception> queue = deferred;
+        if (queue != null) queue.add(new Reception(block.hash, now, false));
+        else received(block.hash, now);
+    }
+
+    private void mined(Hash256 hash, double now) {
+        propagating.put(hash, new Propagation(now));
+        received(hash, now);
+    }
+
+    private void received(Hash256 hash, double now) {
+        Propagation p = propagating.get(hash);
+        if (p == null) return; // Bloc non suivi (suivi abandonné)
+        p.reached++;
+        long delayMillis = Math.round((now - p.minedAt) * 1000);
+        if (p.reached == threshold(0.5)) propagation50.record(delayMillis);
+        if (p.reached == threshold(0.9)) propagation90.record(delayMillis);
+        if (p.reached == nodeCount) {
+            propagation100.record(delayMillis);
+            propagating.remove(hash);
+        }
+    }
+
+    /**
+     * Moteur partitionné : les réceptions, enregistrées depuis plusieurs threads et dans le désordre,
+     * sont mises en file jusqu'au prochain {@link #flushPropagation()}.
+     */
+    public void deferPropagation() {
+        if (deferred == null) deferred = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Rejoue les réceptions en file dans l'ordre chronologique (minage avant réception à date égale).
+     * À appeler depuis un seul thread, une fois tous les événements antérieurs exécutés.
+     */
+    public void flushPropagation() {
+        ConcurrentLinkedQueue<Reception> queue = deferred;
+        if (queue == null) return;
+        ArrayList<Reception> batch = new ArrayList<>();
+        for (Reception r; (r = queue.poll()) != null; ) batch.add(r);
+        batch.sort(Comparator.comparingDouble((Reception r) -> r.time).thenComparing(r -> !r.mined));
+        for (Reception r : batch) {
+            if (r.mined) mined(r.hash, r.time);
+            else received(r.hash, r.time);
+        }
+    }
+
+    /** Un nœud a abandonné {@code depth} blocs de sa chaîne. */
+    public void reorg(int depth) {
+        reorgs.increment();
+        reorgDepth.record(depth);
+    }
+
+    /** @return Le nombre de nœuds à atteindre pour couvrir cette part du réseau (au moins 1). */
+    private int threshold(double share) {
+        return Math.max(1, (int) Math.ceil(share * nodeCount));
+    }
+
+    /** Une réception (ou un minage) en attente d'être rejouée. */
+    private static final class Reception {
+        final Hash256 hash;
+        final double time;
+        final boolean mined;
+
+        Reception(Hash256 hash, double time, boolean mined) {
+            this.hash = hash;
+            this.time = time;
+            this.mined = mined;
+        }
+    }
+
+    /** Date de minage et nombre de nœuds atteints d'un bloc. */
+    private static final class Propagation {
+        final double minedAt;
+        int reached;
+
+        Propagation(double minedAt) {
+            this.minedAt = minedAt;
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Bilan]
+    // ========================================================================
+
+    /** @return Le nombre de blocs de l'arbre absents de la chaîne de {@code best} (travail perdu). */
+    public long staleBlocks(Block best) {
+        return Math.max(0, blockTree.size() - 1 - best.height);
+    }
+
+    /** @return La part des blocs de l'arbre qui ne sont pas dans la chaîne de {@code best}. */
+    public double staleRate(Block best) {
+        int blocks = blockTree.size() - 1;
+        return blocks == 0 ? 0 : (double) staleBlocks(best) / blocks;
+    }
+
+    /**
+     * Délai de finalité des blocs de la chaîne de {@code best} : temps entre l'horodatage d'un bloc
+     * et celui du bloc qui lui apporte {@code confirmations} confirmations (horodatages en temps
+     * simulé dans le moteur autonome). Les blocs encore trop proches du sommet sont ignorés.
+     * @return L'histogramme des délais, en millisecondes.
+     */
+    public Histogram timeToFinality(Block best, int confirmations) {
+        long[] timestamps = new long[best.height + 1];
+        for (Block b = best; b != null; b = blockTree.parentOf(b)) timestamps[b.height] = b.timestamp;
+        Histogram delays = new Histogram();
+        for (int height = 1; height + confirmations <= best.height; height++) {
+            delays.record(timestamps[height + confirmations] - timestamps[height]);
+        }
+        return delays;
+    }
+
+    /**
+     * @return Le nombre moyen de messages de diffusion des blocs et de synchronisation par bloc miné
+     *         ({@link NetworkStats#blockMessages()} : coût du relais, transactions non comprises).
+     */
+    public double messagesPerBlock() {
+        long mined = blocksMined.sum();
+        return mined == 0 ? 0 : (double) networkStats.blockMessages() / mined;
+    }
+
+    /** @return Un résumé lisible (quelques lignes). */
+    public String summary(Block best) {
+        return String.format(Locale.ROOT,
+                "Blocs : %d minés, %d périmés (%.2f %%), %d orphelins reçus, %d invalides rejetés, %.1f messages de relais par bloc%n"
+                + "Forks : %d réorganisations, profondeur max %d%n"
+                + "Propagation (médiane / p90) : 50 %% des nœuds %.3f / %.3f s, 90 %% %.3f / %.3f s, 100 %% %.3f / %.3f s",
+                blocksMined.sum(), staleBlocks(best), 100 * staleRate(best), orphanBlocks.sum(), invalidBlocks.sum(),
+                messagesPerBlock(), reorgs.sum(), reorgDepth.max(),
+                propagation50.percentile(0.5) / 1000.0, propagation50.percentile(0.9) / 1000.0,
+                propagation90.percentile(0.5) / 1000.0, propagation90.percentile(0.9) / 1000.0,
+                propagation100.percentile(0.5) / 1000.0, propagation100.percentile(0.9) / 1000.0);
+    }
+
+    /** @return Une ligne CSV (colonnes de {@link #CSV_HEADER}), relevée à la date {@code now}. */
+    public String csvRow(Block best, double now) {
+        return String.format(Locale.ROOT, "%.3f,%d,%d,%d,%d,%.6f,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                now, nodeCount, blocksMined.sum(), best.height, staleBlocks(best), staleRate(best),
+                orphanBlocks.sum(), invalidBlocks.sum(), reorgs.sum(), reorgDepth.max(),
+                networkStats.totalMessages(), messagesPerBlock(),
+                propagation50.percentile(0.5) / 1000.0, propagation90.percentile(0.5) / 1000.0,
+                propagation100.percentile(0.5) / 1000.0, propagation100.percentile(0.9) / 1000.0);
+    }
+
+    /** @return Le bilan complet en JSON, relevé à la date {@code now} (secondes simulées). */
+    public String toJson(Block best, List<NodeLogic> nodes, double now) {
+        double nominal = 0;
+        long attempts = 0;
+        for (NodeLogic node : nodes) {
+            nominal += node.hashRate;
+            attempts += node.hashAttempts();
+        }
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append(String.format(Locale.ROOT, "  \"time\" : %.3f,%n", now));
+        json.append("  \"nodes\" : ").append(nodeCount).append(",\n");
+        json.append("  \"blocksMined\" : ").append(blocksMined.sum()).append(",\n");
+        json.append("  \"bestHeight\" : ").append(best.height).append(",\n");
+        json.append("  \"staleBlocks\" : ").append(staleBlocks(best)).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"staleRate\" : %.6f,%n", staleRate(best)));
+        json.append("  \"orphanBlocks\" : ").append(orphanBlocks.sum()).append(",\n");
+        json.append("  \"invalidBlocks\" : ").append(invalidBlocks.sum()).append(",\n");
+        json.append("  \"reorgs\" : ").append(reorgs.sum()).append(",\n");
+        json.append("  \"reorgDepth\" : ").append(reorgDepth.toJson(1)).append(",\n");
+        json.append("  \"messages\" : ").append(networkStats.totalMessages()).append(",\n");
+        json.append("  \"bytes\" : ").append(networkStats.totalBytes()).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"messagesPerBlock\" : %.3f,%n", messagesPerBlock()));
+        json.append("  \"propagationSeconds\" : {\n");
+        json.append("    \"50\" : ").append(propagation50.toJson(1000)).append(",\n");
+        json.append("    \"90\" : ").append(propagation90.toJson(1000)).append(",\n");
+        json.append("    \"100\" : ").append(propagation100.toJson(1000)).append("\n");
+        json.append("  },\n");
+        json.append(String.format(Locale.ROOT,
+                "  \"hashRate\" : { \"nominal\" : %.3f, \"attempts\" : %d, \"measured\" : %.3f }%n",
+                nominal, attempts, now > 0 ? attempts / now : 0));
+        json.append("}\n");
+        return json.toString();
+    }
+
+    /**
+     * Écrit le bilan ({@code prefixe.json}) et la puissance de hachage par nœud ({@code prefixe-nodes.csv}).
+     * @param prefix Chemin sans extension.
+     */
+    public void export(String prefix, Block best, List<NodeLogic> nodes, double now) throws IOException {
+        Files.write(Paths.get(prefix + ".json"), toJson(best, nodes, now).getBytes(StandardCharsets.UTF_8));
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(prefix + "-nodes.csv"), StandardCharsets.UTF_8))) {
+            out.println("node,hashRate,attempts,attemptsPerSecond,blocksMined,height");
+            for (NodeLogic node : nodes) {
+                out.println(String.format(Locale.ROOT, "%d,%.3f,%d,%.3f,%d,%d", node.index(), node.hashRate,
+                        node.hashAttempts(), now > 0 ? node.hashAttempts() / now : 0, node.blocksMined, node.tip.height));
+            }
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Sauvegarde et reprise]
+    // ========================================================================
+
+    /** Écrit les compteurs, les histogrammes et les blocs en cours de propagation (moteur séquentiel). */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(blocksMined.sum());
+        out.writeLong(orphanBlocks.sum());
+        out.writeLong(invalidBlocks.sum());
+        out.writeLong(reorgs.sum());
+        for (Histogram histogram : histograms()) histogram.writeTo(out);
+        out.writeInt(propagating.size());
+        byte[] bytes = new byte[32];
+        for (Map.Entry<Hash256, Propagation> e : propagating.entrySet()) {
+            e.getKey().writeTo(bytes, 0);
+            out.write(bytes);
+            out.writeDouble(e.getValue().minedAt);
+            out.writeInt(e.getValue().reached);
+        }
+    }
+
+    /** Reprend les indicateurs écrits par {@link #writeTo} (sur des compteurs vides). */
+    public void readFrom(DataInput in) throws IOException {
+        blocksMined.add(in.readLong());
+        orphanBlocks.add(in.readLong());
+        invalidBlocks.add(in.readLong());
+        reorgs.add(in.readLong());
+        for (Histogram histogram : histograms()) histogram.readFrom(in);
+        int count = in.readInt();
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < count; i++) {
+            in.readFully(bytes);
+            Propagation p = new Propagation(in.readDouble());
+            p.reached = in.readInt();
+            propagating.put(Hash256.fromBytes(bytes), p);
+        }
+    }
+
+    private Histogram[] histograms() {
+        return new Histogram[] { reorgDepth, propagation50, propagation90, propagation100 };
+    }
+
+
+    // ========================================================================
+    // [SECTION: Histogramme]
+    // ========================================================================
+
+    /**
+     * Histogramme sans verrou de valeurs entières positives, à précision relative bornée :
+     * valeurs exactes jusqu'à 15, puis 16 classes par puissance de 2 (erreur inférieure à 6,25 %).
+     * La dernière classe reçoit tout ce qui la dépasse, jusqu'à {@link Long#MAX_VALUE}.
+     */
+    public static final class Histogram {
+
+        private static final int SUB_BUCKETS = 16;
+        private static final int BUCKETS = 60 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder(); // Un long déborderait sur des valeurs proches de Long.MAX_VALUE
+        private final AtomicLong max = new AtomicLong();
+
+        /** Enregistre une valeur (les valeurs négatives comptent pour 0). */
+        public void record(long value) {
+            long v = Math.max(0, value);
+            counts.incrementAndGet(bucket(v));
+            count.increment();
+            sum.add(v);
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long max() {
+            return max.get();
+        }
+
+        public double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        /** @return La valeur sous laquelle se trouve la part {@code q} des valeurs (0 si vide). */
+        public long percentile(double q) {
+            long n = count.sum();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(max.get(), upperBound(i));
+            }
+            return max.get();
+        }
+
+        /** @return {@code {"count", "mean", "p50", "p90", "p99", "max"}}, valeurs divisées par {@code scale}. */
+        String toJson(double scale) {
+            return String.format(Locale.ROOT,
+                    "{ \"count\" : %d, \"mean\" : %.3f, \"p50\" : %.3f, \"p90\" : %.3f, \"p99\" : %.3f, \"max\" : %.3f }",
+                    count(), mean() / scale, percentile(0.5) / scale, percentile(0.9) / scale,
+                    percentile(0.99) / scale, max() / scale);
+        }
+
+        /** Écrit les classes non vides, le nombre de valeurs, leur somme et leur maximum. */
+        void writeTo(DataOutput out) throws IOException {
+            int used = 0;
+            for (int i = 0; i < BUCKETS; i++) if (counts.get(i) != 0) used++;
+            out.writeInt(used);
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = counts.get(i);
+                if (c == 0) continue;
+                out.writeShort(i);
+                out.writeLong(c);
+            }
+            out.writeLong(count.sum());
+            out.writeDouble(sum.sum());
+            out.writeLong(max.get());
+        }
+
+        /** Ajoute les valeurs écrites par {@link #writeTo}. */
+        void readFrom(DataInput in) throws IOException {
+            int used = in.readInt();
+            for (int i = 0; i < used; i++) {
+                int bucket = in.readShort();
+                counts.addAndGet(bucket, in.readLong());
+            }
+            count.add(in.readLong());
+            sum.add(in.readDouble());
+            max.accumulateAndGet(in.readLong(), Math::max);
+        }
+
+        private static int bucket(long v) {
+            if (v < SUB_BUCKETS) return (int) v;
+            int exponent = 63 - Long.numberOfLeadingZeros(v); // >= 4
+            int sub = (int) (v >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKETS - 1, (exponent - 3) * SUB_BUCKETS + sub); // Classe de débordement
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int group = bucket / SUB_BUCKETS;
+            long lower = (long) (SUB_BUCKETS | (bucket % SUB_BUCKETS)) << (group - 1);
+            return lower + (1L << (group - 1)) - 1;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Construit la topologie du réseau P2P : la liste des liens (non orientés) entre nœuds.
+ * <p>
+ * Appelé une seule fois au démarrage (par Agent_Main ou le moteur autonome). Chaque modèle
+ * s'exécute en temps linéaire en nombre d'arêtes : les doublons sont détectés par un
+ * ensemble d'arêtes au lieu de parcourir les connexions de chaque nœud.
+ */
+public class TopologyBuilder {
+
+    /** Nombre d'appariements tentés pour un graphe k-régulier avant d'abandonner. */
+    private static final int MAX_REGULAR_ATTEMPTS = 100;
+
+    private final int nodeCount;
+    private final RandomGenerator random;
+
+    /** Arêtes déjà créées, codées {@code min * nodeCount + max}. */
+    private final HashSet<Long> edgeSet = new HashSet<>();
+    private final List<int[]> edges = new ArrayList<>();
+    private final int[] degree;
+
+    private TopologyBuilder(int nodeCount, RandomGenerator random) {
+        this.nodeCount = nodeCount;
+        this.random = random;
+        this.degree = new int[nodeCount];
+    }
+
+    /**
+     * Construit la topologie décrite par la configuration.
+     * @param nodeCount Nombre de nœuds (index 0 à nodeCount - 1).
+     * @param random Générateur aléatoire de la simulation.
+     * @return Les liens, chacun une seule fois : {@code {a, b}} avec a != b.
+     * @throws IllegalArgumentException si le degré ne convient pas au modèle (hors bornes, impair
+     *         pour SMALL_WORLD et SCALE_FREE) ou si aucun graphe k-régulier n'a pu être tiré.
+     */
+    public static List<int[]> build(SimulationConfig config, int nodeCount, RandomGenerator random) throws IOException {
+        TopologyBuilder builder = new TopologyBuilder(nodeCount, random);
+        int k = config.topologyDegree;
+        if (config.topologyModel != TopologyModel.FILE && (k < 1 || k >= nodeCount)) {
+            throw new IllegalArgumentException("Degré " + k + " impossible pour " + nodeCount + " nœuds");
+        }
+        if ((config.topologyModel == TopologyModel.SMALL_WORLD || config.topologyModel == TopologyModel.SCALE_FREE)
+                && k % 2 != 0) {
+            // Anneau de k/2 successeurs, ou k/2 liens par nouveau nœud : un degré impair serait arrondi
+            throw new IllegalArgumentException("Degré " + k + " impair : le modèle " + config.topologyModel
+                    + " demande un degré pair");
+        }
+
+        switch (config.topologyModel) {
+            case RANDOM: builder.random(k); break;
+            case RANDOM_REGULAR: builder.randomRegular(k); break;
+            case SMALL_WORLD: builder.smallWorld(k, config.smallWorldRewiring); break;
+            case SCALE_FREE: builder.scaleFree(k / 2); break;
+            case FILE: builder.load(config.topologyFile); break;
+            default: throw new IllegalArgumentException("Modèle inconnu : " + config.topologyModel);
+        }
+        return builder.edges;
+    }
+
+
+    // ========================================================================
+    // [SECTION: Modèles de graphes]
+    // ========================================================================
+
+    /** Mode historique : chaque nœud tire des voisins jusqu'à en avoir au moins k. */
+    private void random(int k) {
+        for (int node = 0; node < nodeCount; node++) {
+            while (degree[node] < k) {
+                tryConnect(node, random.nextInt(nodeCount));
+            }
+        }
+    }
+
+    /**
+     * Graphe k-régulier par appariement aléatoire des "demi-liens" (modèle de configuration).
+     * Une paire invalide (boucle ou doublon) est retirée ; si l'appariement se bloque
+     * (rare pour k petit devant n, fréquent quand k approche n), on recommence, au plus
+     * {@value #MAX_REGULAR_ATTEMPTS} fois.
+     */
+    private void randomRegular(int k) {
+        if ((long) nodeCount * k % 2 != 0) {
+            throw new IllegalArgumentException("nœuds × degré doit être pair (" + nodeCount + " × " + k + ")");
+        }
+        int[] stubs = new int[nodeCount * k];
+        for (int attempt = 0; attempt < MAX_REGULAR_ATTEMPTS; attempt++) {
+            clear();
+            for (int i = 0; i < stubs.length; i++) stubs[i] = i / k;
+
+            int remaining = stubs.length;
+            int failures = 0;
+            while (remaining > 0 && failures < 100) {
+                int i = random.nextInt(remaining);
+                int j = random.nextInt(remaining);
+                if (i != j && tryConnect(stubs[i], stubs[j])) {
+                    // Retirer les deux demi-liens (échange avec la fin du tableau)
+                    int hi = Math.max(i, j), lo = Math.min(i, j);
+                    stubs[hi] = stubs[--remaining];
+                    stubs[lo] = stubs[--remaining];
+                    failures = 0;
+                } else {
+                    failures++;
+                }
+            }
+            if (remaining == 0) return;
+        }
+        throw new IllegalArgumentException("Aucun graphe " + k + "-régulier obtenu pour " + nodeCount + " nœuds après "
+                + MAX_REGULAR_ATTEMPTS + " appariements : degré trop proche du nombre de nœuds");
+    }
+
+    /** Petit monde (Watts-Strogatz) : anneau de degré k (pair), liens redirigés avec la probabilité beta. */
+    private void smallWorld(int k, double beta) {
+        int half = k / 2;
+
+        // 1. Anneau : chaque nœud relié à ses 'half' successeurs
+        for (int node = 0; node < nodeCount; node++) {
+            for (int step = 1; step <= half; step++) {
+                tryConnect(node, (node + step) % nodeCount);
+            }
+        }
+        if (beta <= 0) return;
+
+        // 2. Redirection : l'extrémité lointaine d'un lien part vers un nœud au hasard
+        List<int[]> ring = new ArrayList<>(edges);
+        for (int[] edge : ring) {
+            if (random.nextDouble() >= beta) continue;
+            int a = edge[0];
+            for (int attempt = 0; attempt < 16; attempt++) {
+                int target = random.nextInt(nodeCount);
+                if (target != a && !edgeSet.contains(key(a, target))) {
+                    edgeSet.remove(key(edge[0], edge[1]));
+                    degree[edge[1]]--;
+                    edgeSet.add(key(a, target));
+                    degree[target]++;
+                    edge[1] = target;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sans échelle (Barabási-Albert) : part d'une clique de m + 1 nœuds, puis chaque nœud se relie
+     * à m nœuds existants, tirés dans la liste des extrémités de liens (probabilité ∝ degré).
+     */
+    private void scaleFree(int m) {
+        int[] endpoints = new int[2 * (m * (m + 1) / 2 + (nodeCount - m - 1) * m)];
+        int count = 0;
+
+        // 1. Clique initiale
+        int seedSize = Math.min(m + 1, nodeCount);
+        for (int a = 0; a < seedSize; a++) {
+            for (int b = a + 1; b < seedSize; b++) {
+                tryConnect(a, b);
+                endpoints[count++] = a;
+                endpoints[count++] = b;
+            }
+        }
+
+        // 2. Attachement préférentiel
+        int[] targets = new int[m];
+        for (int node = seedSize; node < nodeCount; node++) {
+            int chosen = 0;
+            while (chosen < m) {
+                int target = endpoints[random.nextInt(count)];
+                if (tryConnect(node, target)) targets[chosen++] = target;
+            }
+            for (int target : targets) {
+                endpoints[count++] = node;
+                endpoints[count++] = target;
+            }
+        }
+    }
+
+    /**
+     * Lit une liste d'arêtes : une paire d'index par ligne, séparés par des espaces ou une virgule.
+     * Les lignes vides et les commentaires ({@code #}) sont ignorés, les doublons aussi.
+     */
+    private void load(String file) throws IOException {
+        if (file == null) throw new IllegalArgumentException("Aucun fichier de topologie (topologyFile)");
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) line = line.substring(0, comment);
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                String[] parts = line.split("[\\s,]+");
+                try {
+                    int a = Integer.parseInt(parts[0]);
+                    int b = Integer.parseInt(parts[1]);
+                    if (a < 0 || b < 0 || a >= nodeCount || b >= nodeCount || a == b) {
+                        throw new IllegalArgumentException();
+                    }
+                    tryConnect(a, b);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + " : arête invalide '" + line
+                            + "' (attendu : deux index distincts entre 0 et " + (nodeCount - 1) + ")");
+                }
+            }
+        }
+    }
+
+
+    // ========================================================================
+    // [SECTION: Ensemble d'arêtes]
+    // ========================================================================
+
+    /** Ajoute le lien a-b s'il est valide (pas de boucle ni de doublon). */
+    private boolean tryConnect(int a, int b) {
+        if (a == b || !edgeSet.add(key(a, b))) return false;
+        edges.add(new int[] { a, b });
+        degree[a]++;
+        degree[b]++;
+        return true;
+    }
+
+    private long key(int a, int b) {
+        return (long) Math.min(a, b) * nodeCount + Math.max(a, b);
+    }
+
+    private void clear() {
+        edgeSet.clear();
+        edges.clear();
+        Arrays.fill(degree, 0);
+    }
+}
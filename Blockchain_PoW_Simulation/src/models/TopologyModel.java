@@ -0,0 +1,31 @@
+/**
+ * Modèle de graphe utilisé pour relier les nœuds du réseau P2P (voir {@link TopologyBuilder}).
+ */
+public enum TopologyModel {
+
+    /**
+     * Mode historique : chaque nœud se connecte à des voisins tirés au hasard jusqu'à en avoir
+     * au moins {@code topologyDegree} (les degrés finaux varient d'un nœud à l'autre).
+     */
+    RANDOM,
+
+    /** Graphe aléatoire où chaque nœud a exactement {@code topologyDegree} voisins. */
+    RANDOM_REGULAR,
+
+    /**
+     * Petit monde (Watts-Strogatz) : anneau où chaque nœud est relié à ses {@code topologyDegree}
+     * plus proches voisins (degré pair), chaque lien étant redirigé au hasard avec la probabilité
+     * {@code smallWorldRewiring}. Forte localité, diamètre court.
+     */
+    SMALL_WORLD,
+
+    /**
+     * Sans échelle (Barabási-Albert) : chaque nouveau nœud se connecte à {@code topologyDegree / 2}
+     * nœuds existants choisis proportionnellement à leur degré (degré pair, degré moyen
+     * {@code topologyDegree}). Quelques "hubs" très connectés.
+     */
+    SCALE_FREE,
+
+    /** Liste d'arêtes lue dans le fichier {@code topologyFile} (une paire d'index par ligne). */
+    FILE
+}
@@ -0,0 +1,17 @@
+/**
+ * Niveau de détail des traces écrites par les nœuds ({@link NodeHost#trace(String)}).
+ * <p>
+ * Le texte d'une trace n'est construit que si son niveau est actif : à {@link #OFF},
+ * les campagnes de mesure ne paient plus aucune concaténation de chaînes.
+ */
+public enum TraceLevel {
+
+    /** Aucune trace (mesures de débit, grands réseaux). */
+    OFF,
+
+    /** Événements rares : bloc miné, fork adopté, bloc invalide, attaque. */
+    INFO,
+
+    /** Tout, y compris chaque bloc accepté et chaque demande de synchronisation (comportement historique). */
+    DEBUG
+}
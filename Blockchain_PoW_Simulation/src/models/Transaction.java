@@ -0,0 +1,128 @@
+/**
+ * Transaction émise par un nœud, diffusée de proche en proche puis incluse dans un bloc.
+ * <p>
+ * Seuls les champs utiles à la simulation sont réels (émetteur, destinataire, montant) :
+ * les scripts et signatures sont représentés par leur taille ({@link #payloadBytes}),
+ * qui compte dans la bande passante mais pas dans le hachage. L'identifiant est le
+ * SHA-256 des champs encodés, calculé une seule fois. Objet immuable.
+ */
+public final class Transaction implements NetworkMessage {
+
+    /** Taille des champs encodés : émetteur, numéro, destinataire, montant, taille, horodatage. */
+    public static final int ENCODED_BYTES = 4 + 8 + 4 + 8 + 4 + 8;
+
+    /** Identifiant (SHA-256 des champs encodés) : feuille de l'arbre de Merkle du bloc. */
+    public final Hash256 id;
+
+    /** Index du nœud émetteur. */
+    public final int origin;
+
+    /** Numéro de la transaction chez son émetteur (rend l'identifiant unique). */
+    public final long sequence;
+
+    /** Index du nœud destinataire. */
+    public final int recipient;
+
+    /** Montant transféré (unités arbitraires). */
+    public final long amount;
+
+    /** Taille simulée des scripts et signatures, en octets. */
+    public final int payloadBytes;
+
+    /** Horodatage de création (en millisecondes, même horloge que les blocs). */
+    public final long timestamp;
+
+    public Transaction(int origin, long sequence, int recipient, long amount, int payloadBytes, long timestamp) {
+        this.origin = origin;
+        this.sequence = sequence;
+        this.recipient = recipient;
+        this.amount = amount;
+        this.payloadBytes = payloadBytes;
+        this.timestamp = timestamp;
+        byte[] encoded = new byte[ENCODED_BYTES];
+        encode(encoded, 0);
+        this.id = Hash256.sha256(encoded, 0, ENCODED_BYTES);
+    }
+
+    /**
+     * Reconstruit une transaction déjà identifiée (relecture depuis un journal ou une sauvegarde),
+     * sans recalculer son identifiant.
+     */
+    Transaction(Hash256 id, int origin, long sequence, int recipient, long amount, int payloadBytes, long timestamp) {
+        this.id = id;
+        this.origin = origin;
+        this.sequence = sequence;
+        this.recipient = recipient;
+        this.amount = amount;
+        this.payloadBytes = payloadBytes;
+        this.timestamp = timestamp;
+    }
+
+    /** Écrit les {@link #ENCODED_BYTES} octets des champs (big-endian) à partir de {@code offset}. */
+    public void encode(byte[] buffer, int offset) {
+        writeInt(origin, buffer, offset);
+        writeLong(sequence, buffer, offset + 4);
+        writeInt(recipient, buffer, offset + 12);
+        writeLong(amount, buffer, offset + 16);
+        writeInt(payloadBytes, buffer, offset + 24);
+        writeLong(timestamp, buffer, offset + 28);
+    }
+
+    /**
+     * Relit une transaction encodée par {@link #encode} (journal de blocs, sauvegarde),
+     * sans recalculer son identifiant.
+     */
+    static Transaction decode(Hash256 id, byte[] buffer, int offset) {
+        return new Transaction(id, readInt(buffer, offset), readLong(buffer, offset + 4), readInt(buffer, offset + 12),
+                readLong(buffer, offset + 16), readInt(buffer, offset + 24), readLong(buffer, offset + 28));
+    }
+
+    /** @return La taille de la transaction sur le réseau (et dans un bloc, sans l'en-tête de message). */
+    public int encodedSize() {
+        return ENCODED_BYTES + payloadBytes;
+    }
+
+    @Override
+    public int sizeBytes() {
+        return HEADER_BYTES + encodedSize();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Transaction && ((Transaction) o).id.equals(id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Tx " + origin + "#" + sequence + " -> " + recipient + " : " + amount;
+    }
+
+
+    // --- Outils big-endian ---
+
+    private static void writeInt(int value, byte[] b, int offset) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static void writeLong(long value, byte[] b, int offset) {
+        writeInt((int) (value >>> 32), b, offset);
+        writeInt((int) value, b, offset + 4);
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+             | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] b, int offset) {
+        return ((long) readInt(b, offset) << 32) | (readInt(b, offset + 4) & 0xFFFFFFFFL);
+    }
+}
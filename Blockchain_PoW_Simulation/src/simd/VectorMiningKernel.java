@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Noyau de minage SIMD : hache 4, 8 ou 16 nonces d'un même en-tête en une passe,
+ * une voie de vecteur par nonce (API Vector du JDK, module incubateur).
+ * <p>
+ * Compilation et exécution avec le module :
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -encoding UTF-8 -d out src/models/*.java src/simd/*.java ...
+ * java --add-modules jdk.incubator.vector -cp out ...
+ * </pre>
+ * Chargé par réflexion depuis {@link MiningKernel#select} : le reste du projet compile et
+ * s'exécute sans ce module.
+ * <p>
+ * Le JIT ne produit de vraies instructions vectorielles que si l'espèce (la largeur) est une
+ * constante : elle est fixée au chargement de la classe ({@link MiningKernel#requestedLanes}),
+ * donc une seule largeur par JVM.
+ */
+public final class VectorMiningKernel extends MiningKernel {
+
+    /** Espèce des vecteurs : largeur demandée si le processeur la supporte, sinon sa largeur préférée. */
+    private static final VectorSpecies<Integer> SPECIES = species(requestedLanes);
+
+    private static final int LANES = SPECIES.length();
+
+    /** Message du second bloc (64 mots par voie) puis hash (8 mots par voie), un par thread. */
+    private static final ThreadLocal<int[]> WORKSPACE = ThreadLocal.withInitial(() -> new int[72 * LANES]);
+
+    private VectorMiningKernel() {
+    }
+
+    /**
+     * Appelé par réflexion depuis {@link MiningKernel#select}.
+     * @param lanes 4, 8 ou 16 (0 = la plus grande largeur supportée par le processeur).
+     * @throws IllegalArgumentException si cette largeur n'est pas celle de la JVM (repli sur le noyau scalaire).
+     */
+    public static MiningKernel create(int lanes) {
+        if (LANES < 4) {
+            throw new IllegalArgumentException("vecteurs de " + LANES + " entiers seulement");
+        }
+        if (lanes != 0 && lanes != LANES) {
+            throw new IllegalArgumentException(lanes + " voies demandées, cette JVM utilise " + LANES
+                    + " voies (largeur limitée par le processeur, fixée au premier chargement)");
+        }
+        return new VectorMiningKernel();
+    }
+
+    private static VectorSpecies<Integer> species(int lanes) {
+        VectorSpecies<Integer> preferred = IntVector.SPECIES_PREFERRED;
+        switch (lanes) {
+            case 4: return IntVector.SPECIES_128;
+            case 8: return preferred.length() >= 8 ? IntVector.SPECIES_256 : preferred;
+            case 16: return preferred.length() >= 16 ? IntVector.SPECIES_512 : preferred;
+            default: return preferred;
+        }
+    }
+
+    @Override
+    public String name() {
+        return VECTOR;
+    }
+
+    @Override
+    public int lanes() {
+        return LANES;
+    }
+
+    @Override
+    protected int searchRange(Midstate midstate, int fromNonce, int count, int zeros) {
+        int[] w = workspace(midstate);
+        int hashOffset = 64 * LANES;
+        int mask0 = zeroMask(zeros, 0);
+        int mask1 = zeroMask(zeros, 1);
+        long end = (long) fromNonce + count;
+        for (long base = fromNonce; base < end; base += LANES) {
+            compress(midstate, w, (int) base);
+
+            // 1. Test vectoriel des deux premiers mots (jusqu'à 16 zéros)
+            IntVector h0 = IntVector.fromArray(SPECIES, w, hashOffset);
+            IntVector h1 = IntVector.fromArray(SPECIES, w, hashOffset + LANES);
+            VectorMask<Integer> hit = h0.and(mask0).eq(0).and(h1.and(mask1).eq(0));
+            if (!hit.anyTrue()) continue;
+
+            // 2. Premier nonce gagnant du paquet (les voies au-delà de la plage sont ignorées)
+            int valid = (int) Math.min(LANES, end - base);
+            for (int lane = 0; lane < valid; lane++) {
+                if (hit.laneIsSet(lane) && (zeros <= 16 || laneMeetsDifficulty(w, lane, zeros))) {
+                    return (int) (base + lane);
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    void hashLanes(Midstate midstate, int firstNonce, int[] out) {
+        int[] w = workspace(midstate);
+        compress(midstate, w, firstNonce);
+        for (int lane = 0; lane < LANES; lane++) {
+            for (int word = 0; word < 8; word++) {
+                out[lane * 8 + word] = w[(64 + word) * LANES + lane];
+            }
+        }
+    }
+
+    /** @return L'espace de travail de ce thread, avec les mots du message communs à tous les nonces. */
+    private static int[] workspace(Midstate midstate) {
+        int[] w = WORKSPACE.get();
+        for (int t = 0; t < midstate.w.length; t++) {
+            if (t != 3) Arrays.fill(w, t * LANES, (t + 1) * LANES, midstate.w[t]);
+        }
+        return w;
+    }
+
+    private static boolean laneMeetsDifficulty(int[] w, int lane, int zeros) {
+        int[] words = new int[8];
+        for (int word = 0; word < 8; word++) words[word] = w[(64 + word) * LANES + lane];
+        return meetsDifficulty(words, 0, zeros);
+    }
+
+    /**
+     * Compression du second bloc pour les nonces {@code firstNonce, firstNonce + 1, ...} (une voie chacun).
+     * Le message occupe {@code w[mot * voies + voie]}, le hash est écrit à la suite (mots 64 à 71).
+     */
+    private static void compress(Midstate midstate, int[] w, int firstNonce) {
+
+        // 1. Message : nonces dans le mot 3, puis mots 18 à 63
+        IntVector.broadcast(SPECIES, firstNonce).addIndex(1).intoArray(w, 3 * LANES);
+        for (int t = 18; t < 64; t++) {
+            IntVector w2 = IntVector.fromArray(SPECIES, w, (t - 2) * LANES);
+            IntVector w15 = IntVector.fromArray(SPECIES, w, (t - 15) * LANES);
+            IntVector s1 = w2.lanewise(VectorOperators.ROR, 17)
+                    .lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.ROR, 19))
+                    .lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.LSHR, 10));
+            IntVector s0 = w15.lanewise(VectorOperators.ROR, 7)
+                    .lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.ROR, 18))
+                    .lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.LSHR, 3));
+            s1.add(IntVector.fromArray(SPECIES, w, (t - 7) * LANES)).add(s0)
+                    .add(IntVector.fromArray(SPECIES, w, (t - 16) * LANES))
+                    .intoArray(w, t * LANES);
+        }
+
+        // 2. Tours 3 à 63, à partir de l'état commun après le tour 2
+        int[] r = midstate.round3;
+        IntVector a = IntVector.broadcast(SPECIES, r[0]), b = IntVector.broadcast(SPECIES, r[1]);
+        IntVector c = IntVector.broadcast(SPECIES, r[2]), d = IntVector.broadcast(SPECIES, r[3]);
+        IntVector e = IntVector.broadcast(SPECIES, r[4]), f = IntVector.broadcast(SPECIES, r[5]);
+        IntVector g = IntVector.broadcast(SPECIES, r[6]), h = IntVector.broadcast(SPECIES, r[7]);
+        for (int t = FIRST_ROUND; t < 64; t++) {
+            IntVector bigSigma1 = e.lanewise(VectorOperators.ROR, 6)
+                    .lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 11))
+                    .lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 25));
+            IntVector ch = g.lanewise(VectorOperators.XOR, e.and(f.lanewise(VectorOperators.XOR, g)));
+            IntVector t1 = h.add(bigSigma1).add(ch).add(K[t]).add(IntVector.fromArray(SPECIES, w, t * LANES));
+            IntVector bigSigma0 = a.lanewise(VectorOperators.ROR, 2)
+                    .lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 13))
+                    .lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 22));
+            IntVector maj = a.and(b).or(c.and(a.or(b)));
+            h = g; g = f; f = e; e = d.add(t1);
+            d = c; c = b; b = a; a = t1.add(bigSigma0).add(maj);
+        }
+
+        // 3. Ajout du midstate
+        int[] s = midstate.state;
+        int out = 64 * LANES;
+        a.add(s[0]).intoArray(w, out);
+        b.add(s[1]).intoArray(w, out + LANES);
+        c.add(s[2]).intoArray(w, out + 2 * LANES);
+        d.add(s[3]).intoArray(w, out + 3 * LANES);
+        e.add(s[4]).intoArray(w, out + 4 * LANES);
+        f.add(s[5]).intoArray(w, out + 5 * LANES);
+        g.add(s[6]).intoArray(w, out + 6 * LANES);
+        h.add(s[7]).intoArray(w, out + 7 * LANES);
+    }
+}
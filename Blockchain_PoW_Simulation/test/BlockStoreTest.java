@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Journal de blocs : relecture fidèle (y compris après réouverture) et élagage de l'arbre qui l'utilise.
+ */
+class BlockStoreTest {
+
+    private final int savedDifficulty = Block.difficulty;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void restoreDifficulty() {
+        Block.difficulty = savedDifficulty;
+    }
+
+    private static Block mine(Block block) {
+        int nonce = 0;
+        while (block.mineBlock(nonce) == null) nonce++;
+        return block;
+    }
+
+    private static void assertSameBlock(Block expected, Block actual) {
+        assertEquals(expected.hash, actual.hash);
+        assertEquals(expected.previousHash, actual.previousHash);
+        assertEquals(expected.merkleRoot, actual.merkleRoot);
+        assertEquals(expected.transactions, actual.transactions);
+        assertEquals(expected.transactionList, actual.transactionList);
+        assertEquals(expected.timestamp, actual.timestamp);
+        assertEquals(expected.nonce, actual.nonce);
+        assertEquals(expected.simulated, actual.simulated);
+        assertEquals(expected.targetDifficulty, actual.targetDifficulty);
+        assertEquals(expected.height, actual.height);
+        assertEquals(expected.chainWork, actual.chainWork);
+        assertTrue(actual.isValid());
+    }
+
+    @Test
+    void blocksReadBackIdenticalAfterReopening() throws IOException {
+        Block.difficulty = 1;
+        Path file = dir.resolve("blocs.dat");
+        List<Block> written = new ArrayList<>();
+        try (BlockStore store = BlockStore.create(file)) {
+            BlockTree tree = new BlockTree(store, 100);
+            List<Transaction> transactions = List.of(
+                    new Transaction(1, 0, 2, 50, 250, 1000), new Transaction(2, 0, 3, 20, 250, 1001));
+            Block first = tree.add(mine(new Block("Bloc 1", tree.genesis().hash, 1000, transactions)));
+            Block.difficulty = 2;
+            Block second = tree.add(mine(new Block("Bloc 2 — accentué", first.hash, 2000)));
+            written.add(first);
+            written.add(second);
+            for (Block block : written) assertSameBlock(block, store.read(block.storeOffset));
+        }
+
+        try (BlockStore store = BlockStore.open(file)) {
+            assertEquals(3, store.size());
+            for (Block block : written) assertSameBlock(block, store.find(block.hash));
+            assertNull(store.find(Hash256.fromHex(String.format("%064x", 42))));
+        }
+    }
+
+    @Test
+    void treeKeepsOnlyTheWindowInMemory() throws IOException {
+        Block.difficulty = 1;
+        int window = 5;
+        try (BlockStore store = BlockStore.create(dir.resolve("blocs.dat"))) {
+            BlockTree tree = new BlockTree(store, window);
+            List<Block> chain = new ArrayList<>();
+            chain.add(tree.genesis());
+            for (int height = 1; height <= 40; height++) {
+                Block parent = chain.get(height - 1);
+                chain.add(tree.add(mine(new Block("Bloc " + height, parent.hash, height * 1000L))));
+            }
+            Block tip = chain.get(40);
+
+            assertEquals(41, tree.size());
+            assertEquals(window + 2, tree.sizeInMemory(), "de l'horizon au sommet, plus le Genesis");
+            assertEquals(chain.get(3).hash, tree.get(chain.get(3).hash).hash, "bloc élagué relu depuis le journal");
+            assertEquals(chain.get(3).hash, tree.ancestor(tip, 3).hash);
+            assertTrue(tree.isOnChain(chain.get(10), tip));
+            assertEquals(chain.get(20).hash, tree.commonAncestor(tip, chain.get(20)).hash);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Travail cumulé des branches : chaque bloc compte pour la difficulté inscrite dans son en-tête.
+ */
+class BlockTreeTest {
+
+    private final int savedDifficulty = Block.difficulty;
+
+    @AfterEach
+    void restoreDifficulty() {
+        Block.difficulty = savedDifficulty;
+    }
+
+    private static Block mine(Block block) {
+        int nonce = 0;
+        while (block.mineBlock(nonce) == null) nonce++;
+        return block;
+    }
+
+    @Test
+    void workFollowsEachBlockDifficulty() {
+        Block.difficulty = 1;
+        BlockTree tree = new BlockTree();
+        Block first = tree.add(mine(new Block("Bloc 1", tree.genesis().hash, 1000)));
+        Block.difficulty = 2;
+        Block second = tree.add(mine(new Block("Bloc 2", first.hash, 2000)));
+
+        assertEquals(16, BlockTree.work(first));
+        assertEquals(256, BlockTree.work(second));
+        assertEquals(tree.genesis().chainWork + 16 + 256, second.chainWork);
+        assertTrue(second.hash.meetsDifficulty(2));
+        assertTrue(first.isValid(), "un bloc garde sa difficulté quand celle du réseau change");
+    }
+
+    @Test
+    void simulatedBlockCountsForTheNetworkDifficulty() {
+        Block.difficulty = 5;
+        BlockTree tree = new BlockTree();
+        Block block = new Block("Bloc simulé", tree.genesis().hash, 1000);
+        block.simulated = true;
+        tree.add(mine(block));
+
+        assertEquals(Math.pow(16, 5), BlockTree.work(block));
+        assertTrue(block.hash.meetsDifficulty(Block.simulatedDifficulty));
+    }
+
+    @Test
+    void workStaysExactAboveDifficultySixteen() {
+        Block.difficulty = 20;
+        Block block = new Block("Bloc", BlockTree.GENESIS_HASH, 1000);
+
+        assertEquals(0x1p80, BlockTree.work(block));
+    }
+}
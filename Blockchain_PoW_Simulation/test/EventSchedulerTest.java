@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ordre d'exécution de l'échéancier : chronologique, puis ordre de planification à date égale.
+ */
+class EventSchedulerTest {
+
+    private final EventScheduler scheduler = new EventScheduler();
+    private final List<String> executed = new ArrayList<>();
+
+    private SimEvent event(String name) {
+        return new SimEvent() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+
+    @Test
+    void simultaneousEventsRunInSchedulingOrder() {
+        for (int i = 0; i < 50; i++) scheduler.schedule(event("e" + i), 1.0);
+        scheduler.schedule(event("avant"), 0.5);
+
+        scheduler.runUntil(1.0);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("avant");
+        for (int i = 0; i < 50; i++) expected.add("e" + i);
+        assertEquals(expected, executed);
+    }
+
+    @Test
+    void rescheduledEventGoesBehindItsNewPeers() {
+        SimEvent first = event("premier");
+        scheduler.schedule(first, 1.0);
+        scheduler.schedule(event("second"), 1.0);
+        scheduler.schedule(first, 1.0);
+
+        scheduler.runUntil(2.0);
+
+        assertEquals(List.of("second", "premier"), executed);
+        assertEquals(2.0, scheduler.now());
+    }
+
+    @Test
+    void cancelledEventDoesNotRun() {
+        SimEvent cancelled = event("annulé");
+        scheduler.schedule(event("a"), 1.0);
+        scheduler.schedule(cancelled, 1.0);
+        scheduler.schedule(event("b"), 1.0);
+        scheduler.cancel(cancelled);
+
+        scheduler.runUntil(1.0);
+
+        assertEquals(List.of("a", "b"), executed);
+        assertFalse(cancelled.isScheduled());
+    }
+}
@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Réactions d'un nœud aux messages de ses voisins, sans moteur : les envois sont seulement enregistrés.
+ */
+class NodeLogicTest {
+
+    private SimulationContext context;
+    private StubHost node;
+    private StubHost peer;
+
+    @BeforeEach
+    void setUp() {
+        Block.difficulty = 1;
+        SimulationConfig config = new SimulationConfig();
+        config.traceLevel = TraceLevel.OFF;
+        context = new SimulationContext(config);
+        node = new StubHost(context, 0);
+        peer = new StubHost(context, 1);
+    }
+
+    private static Block mine(Block block) {
+        int nonce = 0;
+        while (block.mineBlock(nonce) == null) nonce++;
+        return block;
+    }
+
+    @Test
+    void forgedBlockDoesNotHideTheRealOne() {
+        Block real = mine(new Block("Transactions du bloc 1", context.blockTree.genesis().hash, 1000));
+        Block forged = new Block("FAUSSES TRANSACTIONS", real.previousHash, real.timestamp);
+        forged.hash = real.hash;
+
+        node.logic.onMessage(forged, peer.logic);
+        assertEquals(0, node.logic.tip.height);
+        assertEquals(1, context.metrics.invalidBlocks.sum());
+
+        node.logic.onMessage(real, peer.logic);
+        assertSame(real, node.logic.tip);
+    }
+
+    @Test
+    void unansweredRequestIsRenewedAfterTimeout() {
+        Block block = mine(new Block("Transactions du bloc 1", context.blockTree.genesis().hash, 1000));
+        InvMessage inv = new InvMessage(List.of(block.hash));
+        StubHost other = new StubHost(context, 2);
+
+        node.logic.onMessage(inv, peer.logic);
+        node.logic.onMessage(inv, other.logic);
+        assertEquals(1, requests());
+
+        node.now = context.config.blockRequestTimeout;
+        node.logic.onMessage(inv, other.logic);
+        assertEquals(2, requests());
+    }
+
+    @Test
+    void invalidDeliveryReleasesTheRequest() {
+        Block real = mine(new Block("Transactions du bloc 1", context.blockTree.genesis().hash, 1000));
+        Block forged = new Block("FAUSSES TRANSACTIONS", real.previousHash, real.timestamp);
+        forged.hash = real.hash;
+        InvMessage inv = new InvMessage(List.of(real.hash));
+        StubHost other = new StubHost(context, 2);
+
+        node.logic.onMessage(inv, peer.logic);
+        node.logic.onMessage(new BlocksMessage(List.of(forged)), peer.logic);
+        node.logic.onMessage(inv, other.logic);
+        assertEquals(2, requests());
+
+        node.logic.onMessage(new BlocksMessage(List.of(real)), other.logic);
+        assertSame(real, node.logic.tip);
+    }
+
+    /** @return Le nombre de demandes de blocs (GetBlocks) envoyées par le nœud. */
+    private long requests() {
+        return node.sent.stream().filter(m -> m instanceof GetBlocksMessage).count();
+    }
+
+
+    /** Hôte minimal : horloge fixe, envois mémorisés, aucun affichage. */
+    static final class StubHost implements NodeHost {
+        final NodeLogic logic;
+        final int index;
+        final List<NodeLogic> peers = new ArrayList<>();
+        final List<NetworkMessage> sent = new ArrayList<>();
+        double now;
+
+        StubHost(SimulationContext context, int index) {
+            this.index = index;
+            this.logic = new NodeLogic(this, context);
+        }
+
+        @Override public int index() { return index; }
+        @Override public List<NodeLogic> peers() { return peers; }
+        @Override public void sendMessage(NetworkMessage message, NodeLogic to, double delaySeconds) { sent.add(message); }
+        @Override public double randomUniform(double min, double max) { return min; }
+        @Override public double randomExponential(double rate) { return 1 / rate; }
+        @Override public void scheduleSolve(double delaySeconds) { }
+        @Override public void scheduleTransaction(double delaySeconds) { }
+        @Override public double now() { return now; }
+        @Override public long currentTimeMillis() { return (long) (now * 1000); }
+        @Override public void trace(String line) { }
+        @Override public void flash(Color color) { }
+        @Override public void updateVisuals() { }
+        @Override public void onBlockMined() { }
+        @Override public void animateMessage(NodeLogic to) { }
+    }
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Réserve d'orphelins : capacité respectée, le plus ancien évincé, enfants rendus par parent.
+ */
+class OrphanPoolTest {
+
+    private static Hash256 hash(int n) {
+        return Hash256.fromHex(String.format("%064x", n));
+    }
+
+    private static Block orphan(int n, int parent) {
+        Block block = new Block("Orphelin " + n, hash(parent), n);
+        block.hash = hash(n);
+        return block;
+    }
+
+    @Test
+    void oldestOrphanIsEvictedBeyondCapacity() {
+        OrphanPool pool = new OrphanPool(3);
+        for (int n = 1; n <= 5; n++) pool.add(orphan(n, 1000));
+
+        assertEquals(3, pool.size());
+        assertFalse(pool.contains(hash(1)));
+        assertFalse(pool.contains(hash(2)));
+        assertEquals(List.of(hash(3), hash(4), hash(5)), pool.blocks().stream().map(b -> b.hash).toList());
+        assertEquals(3, pool.removeChildrenOf(hash(1000)).size(), "les évincés ne sont plus rendus avec leurs frères");
+    }
+
+    @Test
+    void childrenAreReturnedOnceForTheirParent() {
+        OrphanPool pool = new OrphanPool(10);
+        pool.add(orphan(1, 100));
+        pool.add(orphan(2, 100));
+        pool.add(orphan(3, 200));
+        pool.add(orphan(1, 100));
+
+        assertEquals(3, pool.size());
+        assertEquals(List.of(hash(1), hash(2)), pool.removeChildrenOf(hash(100)).stream().map(b -> b.hash).toList());
+        assertTrue(pool.removeChildrenOf(hash(100)).isEmpty());
+        assertEquals(1, pool.size());
+        assertTrue(pool.contains(hash(3)));
+    }
+}
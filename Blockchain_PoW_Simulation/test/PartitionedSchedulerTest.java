@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Moteur partitionné : à graine égale, même chaîne, même trafic et mêmes indicateurs que l'échéancier unique.
+ */
+class PartitionedSchedulerTest {
+
+    private static final int NODES = 60;
+    private static final long SEED = 11;
+    private static final double DURATION = 1800;
+
+    private static HeadlessSimulation run(int partitions) throws IOException {
+        Block.difficulty = 4;
+        SimulationConfig config = new SimulationConfig();
+        config.miningMode = MiningMode.STATISTICAL;
+        config.averageHashRate = HeadlessSimulation.hashRateFor(NODES, Block.difficulty, 30);
+        config.latencyEnabled = true;
+        config.topologyDegree = 4;
+        config.transactionRate = 0.05;
+        config.parallelValidation = false;
+        config.traceLevel = TraceLevel.OFF;
+        HeadlessSimulation simulation = new HeadlessSimulation(config, SEED);
+        simulation.build(NODES, partitions);
+        try {
+            simulation.runUntil(DURATION);
+        } finally {
+            if (simulation.partitions() != null) simulation.partitions().shutdown();
+        }
+        return simulation;
+    }
+
+    private static String json(HeadlessSimulation simulation) {
+        return simulation.context.metrics.toJson(simulation.bestTip(), simulation.nodeLogics(), DURATION);
+    }
+
+    @Test
+    void partitionedRunMatchesSequentialRun() throws IOException {
+        HeadlessSimulation sequential = run(1);
+        assertTrue(sequential.context.metrics.blocksMined.sum() > 10, "trop peu de blocs pour comparer");
+
+        for (int partitions : new int[] {2, 4}) {
+            HeadlessSimulation partitioned = run(partitions);
+            assertEquals(sequential.bestTip().hash, partitioned.bestTip().hash, partitions + " partitions");
+            assertEquals(sequential.context.networkStats.totalMessages(),
+                    partitioned.context.networkStats.totalMessages(), partitions + " partitions");
+            assertEquals(json(sequential), json(partitioned), partitions + " partitions");
+        }
+    }
+}
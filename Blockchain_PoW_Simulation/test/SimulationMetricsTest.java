@@ -0,0 +1,35 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Histogramme des indicateurs : valeurs exactes aux petites valeurs, classe de débordement aux extrêmes.
+ */
+class SimulationMetricsTest {
+
+    @Test
+    void smallValuesAreExact() {
+        SimulationMetrics.Histogram histogram = new SimulationMetrics.Histogram();
+        for (long v = 0; v < 16; v++) histogram.record(v);
+
+        assertEquals(16, histogram.count());
+        assertEquals(7, histogram.percentile(0.5));
+        assertEquals(15, histogram.percentile(1.0));
+        assertEquals(7.5, histogram.mean());
+    }
+
+    @Test
+    void maxValueGoesToOverflowBucket() {
+        SimulationMetrics.Histogram histogram = new SimulationMetrics.Histogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 62);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(3, histogram.count());
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1.0));
+        assertTrue(histogram.percentile(0.1) >= 1L << 62);
+        assertTrue(histogram.mean() > 0x1p62, "la somme ne doit pas déborder : " + histogram.mean());
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reprise d'une sauvegarde : même chaîne et même bilan d'indicateurs qu'une exécution sans interruption.
+ */
+class SimulationSnapshotTest {
+
+    private static final int NODES = 60;
+    private static final long SEED = 7;
+    private static final double DURATION = 3600;
+
+    private static SimulationConfig config() {
+        Block.difficulty = 4;
+        SimulationConfig config = new SimulationConfig();
+        config.miningMode = MiningMode.STATISTICAL;
+        config.averageHashRate = HeadlessSimulation.hashRateFor(NODES, Block.difficulty, 30);
+        config.latencyEnabled = true;
+        config.topologyDegree = 4;
+        config.transactionRate = 0.05;
+        config.traceLevel = TraceLevel.OFF;
+        return config;
+    }
+
+    private static HeadlessSimulation build() throws IOException {
+        HeadlessSimulation simulation = new HeadlessSimulation(config(), SEED);
+        simulation.build(NODES);
+        return simulation;
+    }
+
+    private static String json(HeadlessSimulation simulation) {
+        return simulation.context.metrics.toJson(simulation.bestTip(), simulation.nodeLogics(), simulation.scheduler.now());
+    }
+
+    @Test
+    void resumedRunMatchesUninterruptedRun(@TempDir Path dir) throws IOException {
+        HeadlessSimulation straight = build();
+        straight.runUntil(DURATION);
+
+        HeadlessSimulation first = build();
+        first.runUntil(DURATION / 2);
+        Path file = dir.resolve("half.snap");
+        SimulationSnapshot.save(first, file);
+        HeadlessSimulation resumed = SimulationSnapshot.resume(file, SimulationSnapshot.readConfig(file));
+        resumed.runUntil(DURATION);
+
+        assertTrue(straight.context.metrics.blocksMined.sum() > 10, "trop peu de blocs pour comparer");
+        assertEquals(straight.bestTip().hash, resumed.bestTip().hash);
+        assertEquals(straight.context.networkStats.totalMessages(), resumed.context.networkStats.totalMessages());
+        assertEquals(json(straight), json(resumed));
+    }
+
+    @Test
+    void messagesPerBlockExcludesTransactions() throws IOException {
+        HeadlessSimulation simulation = build();
+        simulation.runUntil(DURATION / 4);
+
+        SimulationMetrics metrics = simulation.context.metrics;
+        NetworkStats stats = simulation.context.networkStats;
+        assertTrue(stats.byType().get("Transaction").messages.sum() > 0);
+        assertEquals((double) stats.blockMessages() / metrics.blocksMined.sum(), metrics.messagesPerBlock());
+        assertTrue(stats.blockMessages() < stats.totalMessages());
+    }
+}
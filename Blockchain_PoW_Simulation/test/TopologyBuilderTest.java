@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Degrés des topologies générées, et rejet des degrés que le modèle ne sait pas produire.
+ */
+class TopologyBuilderTest {
+
+    private static final int NODES = 200;
+
+    private static List<int[]> build(TopologyModel model, int degree, int nodes) throws IOException {
+        SimulationConfig config = new SimulationConfig();
+        config.topologyModel = model;
+        config.topologyDegree = degree;
+        return TopologyBuilder.build(config, nodes, new SimRandom(3));
+    }
+
+    private static int[] degrees(List<int[]> edges, int nodes) {
+        int[] degree = new int[nodes];
+        HashSet<Long> seen = new HashSet<>();
+        for (int[] edge : edges) {
+            assertTrue(edge[0] != edge[1], "boucle sur " + edge[0]);
+            assertTrue(seen.add((long) Math.min(edge[0], edge[1]) * nodes + Math.max(edge[0], edge[1])), "lien en double");
+            degree[edge[0]]++;
+            degree[edge[1]]++;
+        }
+        return degree;
+    }
+
+    @Test
+    void randomRegularGivesEveryNodeExactlyK() throws IOException {
+        for (int d : degrees(build(TopologyModel.RANDOM_REGULAR, 8, NODES), NODES)) assertEquals(8, d);
+    }
+
+    @Test
+    void randomGivesEveryNodeAtLeastK() throws IOException {
+        for (int d : degrees(build(TopologyModel.RANDOM, 3, NODES), NODES)) assertTrue(d >= 3);
+    }
+
+    @Test
+    void smallWorldAndScaleFreeKeepAverageDegree() throws IOException {
+        assertEquals(NODES * 6 / 2, build(TopologyModel.SMALL_WORLD, 6, NODES).size());
+        int[] scaleFree = degrees(build(TopologyModel.SCALE_FREE, 6, NODES), NODES);
+        long total = 0;
+        for (int d : scaleFree) {
+            assertTrue(d >= 3);
+            total += d;
+        }
+        assertEquals(6.0, (double) total / NODES, 0.1);
+    }
+
+    @Test
+    void oddDegreeIsRejectedWhereItWouldBeRounded() {
+        assertThrows(IllegalArgumentException.class, () -> build(TopologyModel.SMALL_WORLD, 5, NODES));
+        assertThrows(IllegalArgumentException.class, () -> build(TopologyModel.SCALE_FREE, 3, NODES));
+    }
+
+    @Test
+    void randomRegularGivesUpWhenDegreeApproachesNodeCount() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> build(TopologyModel.RANDOM_REGULAR, 97, 100));
+        assertTrue(e.getMessage().contains("97") && e.getMessage().contains("100"), e.getMessage());
+    }
+}